@@ -4,10 +4,13 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.example.app.dto.A;
 import org.example.app.dto.B;
 import org.example.app.dto.UserDTO;
+import org.example.app.service.AuditTrail;
 import org.example.app.service.UserService;
+import org.example.framework.core.IOContainer;
 import org.example.framework.core.annotations.Inject;
 import org.example.framework.security.annotations.PreAuthorize;
 import org.example.framework.security.user.UserDetails;
+import org.example.framework.web.annotations.Cacheable;
 import org.example.framework.web.annotations.PathVariable;
 import org.example.framework.web.annotations.RequestBody;
 import org.example.framework.web.annotations.RequestMapping;
@@ -15,17 +18,32 @@ import org.example.framework.web.annotations.RequestParam;
 import org.example.framework.web.RequestType;
 import org.example.framework.web.ResponseEntity;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @org.example.framework.web.annotations.Controller
 public class Controller {
     @Inject
     UserService userService;
+    //counts handler calls of the cached endpoints
+    private final AtomicInteger cachedInvocations = new AtomicInteger();
+    private final AtomicInteger cachedNullInvocations = new AtomicInteger();
 
     @RequestMapping(path = "/test", method = RequestType.GET)
+    @Cacheable(ttl = 300)
     public String test() {
         return "test success!";
     }
@@ -35,12 +53,117 @@ public class Controller {
         return "testParam is " + id;
     }
 
+    //stands in for a handler waiting on a downstream service
+    @RequestMapping(path = "/testBlocking", method = RequestType.GET)
+    public String testBlocking(@RequestParam Long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return "slept " + millis;
+    }
+
+    @RequestMapping(path = "/testAsync", method = RequestType.GET)
+    public CompletableFuture<String> testAsync(@RequestParam Long millis) {
+        return CompletableFuture.supplyAsync(() -> "async after " + millis,
+                CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS));
+    }
+
+    @RequestMapping(path = "/testAsyncEntity", method = RequestType.GET)
+    public CompletionStage<ResponseEntity<B>> testAsyncEntity() {
+        return CompletableFuture.supplyAsync(() -> new ResponseEntity<>(201, new B("async b", 7)));
+    }
+
+    @RequestMapping(path = "/testAsyncError", method = RequestType.GET)
+    public CompletableFuture<String> testAsyncError() {
+        return CompletableFuture.failedFuture(new IllegalStateException("async failure"));
+    }
+
+    //the stream is consumed when the response is written, on the thread completing the future
+    @RequestMapping(path = "/testAsyncRequestScope", method = RequestType.GET)
+    public CompletableFuture<Stream<String>> testAsyncRequestScope(AuditTrail trail) {
+        trail.add("handler");
+        return CompletableFuture.supplyAsync(() -> Stream.of("written").map(entry -> {
+            AuditTrail current = IOContainer.getInstance().getBean(AuditTrail.class);
+            current.add(entry);
+            return String.join(",", current.getEntries());
+        }), CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+    }
+
+    @RequestMapping(path = "/testStream", method = RequestType.GET)
+    public Stream<B> testStream(@RequestParam Integer count) {
+        return IntStream.range(0, count).mapToObj(i -> new B("b" + i, i));
+    }
+
+    @RequestMapping(path = "/testPublisher", method = RequestType.GET)
+    public Flow.Publisher<B> testPublisher(@RequestParam Integer count) {
+        SubmissionPublisher<B> publisher = new SubmissionPublisher<>();
+        //starts submitting once subscribed, submit blocks while the subscriber is behind
+        return subscriber -> {
+            publisher.subscribe(subscriber);
+            CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < count; i++) {
+                    publisher.submit(new B("b" + i, i));
+                }
+                publisher.close();
+            });
+        };
+    }
+
+    @RequestMapping(path = "/testPublisherError", method = RequestType.GET)
+    public Flow.Publisher<B> testPublisherError() {
+        SubmissionPublisher<B> publisher = new SubmissionPublisher<>();
+        publisher.closeExceptionally(new IllegalStateException("publisher failure"));
+        return publisher;
+    }
+
+    @RequestMapping(path = "/testBytes", method = RequestType.GET)
+    public byte[] testBytes() {
+        return "binary body".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @RequestMapping(path = "/testByteBuffer", method = RequestType.GET)
+    public ResponseEntity<ByteBuffer> testByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("direct".getBytes(StandardCharsets.UTF_8)).flip();
+        return new ResponseEntity<>(202, buffer);
+    }
+
+    @RequestMapping(path = "/testFile", method = RequestType.GET)
+    public Path testFile() {
+        return Path.of("pom.xml");
+    }
+
+    //files are served by FileResponseWriter, never from the response cache
+    @RequestMapping(path = "/testCachedFile", method = RequestType.GET)
+    @Cacheable
+    public ResponseEntity<Path> testCachedFile() {
+        return new ResponseEntity<>(200, Path.of("pom.xml"));
+    }
+
+    @RequestMapping(path = "/testCached", method = RequestType.GET)
+    @Cacheable(key = "name")
+    public B testCached(@RequestParam String name) {
+        return new B(name, cachedInvocations.incrementAndGet());
+    }
+
+    //nothing the first time, there is no empty response to cache
+    @RequestMapping(path = "/testCachedNull", method = RequestType.GET)
+    @Cacheable
+    public String testCachedNull() {
+        return cachedNullInvocations.getAndIncrement() == 0 ? null : "found";
+    }
+
+    @RequestMapping(path = "/testCachedByAuthorities", method = RequestType.GET)
+    @Cacheable(varyByAuthorities = true)
+    public String testCachedByAuthorities() {
+        return "invocation " + cachedInvocations.incrementAndGet();
+    }
+
     @RequestMapping(path = "/testDateParam", method = RequestType.GET)
     public String testParam(@RequestParam LocalDateTime date) {
         return "testParam is " + date;
     }
 
     @RequestMapping(path = "/testPathVar/{id}", method = RequestType.GET)
+    @Cacheable(ttl = 300)
     public String testPathVar(@PathVariable Long id) {
         return "testParam is " + id;
     }
@@ -99,6 +222,13 @@ public class Controller {
                 : new ResponseEntity<>(401, "Login failed");
     }
 
+    @RequestMapping(path = "/testRequestScope", method = RequestType.GET)
+    public String testRequestScope(AuditTrail first, AuditTrail second) {
+        first.add("first");
+        second.add("second");
+        return String.join(",", second.getEntries());
+    }
+
     @RequestMapping(path = "/getCurrentUser", method = RequestType.POST)
     public ResponseEntity<String> getCurrentUser(UserDetails userDetails) {
         System.out.println(userDetails.toString());
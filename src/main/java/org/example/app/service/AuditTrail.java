@@ -0,0 +1,27 @@
+package org.example.app.service;
+
+import org.example.framework.core.Resettable;
+import org.example.framework.core.annotations.Component;
+import org.example.framework.core.annotations.Scope;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Scope(Scope.REQUEST)
+public class AuditTrail implements Resettable {
+    private final List<String> entries = new ArrayList<>();
+
+    public void add(String entry) {
+        entries.add(entry);
+    }
+
+    public List<String> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public void reset() {
+        entries.clear();
+    }
+}
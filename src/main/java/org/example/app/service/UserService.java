@@ -18,9 +18,9 @@ public class UserService {
         }
         UserDetails userDetails = new UserDetails();
         userDetails.setName(username);
-        userDetails.getAuthorities().add(new Authority("ROLE_USER"));
+        userDetails.getAuthorities().add(Authority.intern("ROLE_USER"));
         if (password.equals("admin")) {
-            userDetails.getAuthorities().add(new Authority("ROLE_ADMIN"));
+            userDetails.getAuthorities().add(Authority.intern("ROLE_ADMIN"));
         }
         sessionService.createSession(request, userDetails);
         return true;
@@ -0,0 +1,121 @@
+package org.example.framework;
+
+import java.nio.file.Path;
+
+public class ApplicationConfig {
+    private boolean serverApplication;
+    private boolean lazyInitialization;
+    private boolean virtualThreads;
+    private long asyncTimeout;
+    private long responseCacheSize;
+    private Path staticLocation;
+    private String staticPath;
+
+    public ApplicationConfig() {
+        this.serverApplication = true;
+        this.lazyInitialization = false;
+        this.virtualThreads = false;
+        this.asyncTimeout = 30_000;
+        this.responseCacheSize = 32 * 1024 * 1024;
+        this.staticLocation = Path.of("static");
+        this.staticPath = "/static";
+    }
+
+    /**
+     * @param serverApplication false to only start the container, without Tomcat
+     */
+    public ApplicationConfig setServerApplication(boolean serverApplication) {
+        this.serverApplication = serverApplication;
+        return this;
+    }
+
+    /**
+     * @param lazyInitialization true to create every bean on first use, as if all were marked {@code @Lazy}
+     */
+    public ApplicationConfig setLazyInitialization(boolean lazyInitialization) {
+        this.lazyInitialization = lazyInitialization;
+        return this;
+    }
+
+    /**
+     * @param virtualThreads true to handle every request on its own virtual thread instead of Tomcat's platform thread pool,
+     *                       for handlers that mostly block on I/O
+     */
+    public ApplicationConfig setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * @param asyncTimeout milliseconds a handler returning a CompletionStage may take before the request fails with 503
+     */
+    public ApplicationConfig setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+        return this;
+    }
+
+    /**
+     * @param responseCacheSize bytes of serialized responses kept for {@code @Cacheable} endpoints
+     */
+    public ApplicationConfig setResponseCacheSize(long responseCacheSize) {
+        this.responseCacheSize = responseCacheSize;
+        return this;
+    }
+
+    /**
+     * @param staticLocation directory whose files are served as they are, nothing is served if it does not exist
+     */
+    public ApplicationConfig setStaticLocation(Path staticLocation) {
+        this.staticLocation = staticLocation;
+        return this;
+    }
+
+    /**
+     * @param staticPath url prefix of the static files, e.g. {@code /static} serves {@code /static/app.js}
+     */
+    public ApplicationConfig setStaticPath(String staticPath) {
+        this.staticPath = staticPath;
+        return this;
+    }
+
+    public boolean isServerApplication() {
+        return serverApplication;
+    }
+
+    public boolean isLazyInitialization() {
+        return lazyInitialization;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    public long getResponseCacheSize() {
+        return responseCacheSize;
+    }
+
+    public Path getStaticLocation() {
+        return staticLocation;
+    }
+
+    public String getStaticPath() {
+        return staticPath;
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationConfig{" +
+                "serverApplication=" + serverApplication +
+                ", lazyInitialization=" + lazyInitialization +
+                ", virtualThreads=" + virtualThreads +
+                ", asyncTimeout=" + asyncTimeout +
+                ", responseCacheSize=" + responseCacheSize +
+                ", staticLocation=" + staticLocation +
+                ", staticPath='" + staticPath + '\'' +
+                '}';
+    }
+}
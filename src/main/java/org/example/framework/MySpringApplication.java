@@ -3,17 +3,21 @@ package org.example.framework;
 import org.apache.catalina.Context;
 import org.apache.catalina.LifecycleException;
 import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
 import org.apache.catalina.startup.Tomcat;
 import org.example.framework.core.annotations.MethodScanner;
 import org.example.framework.core.annotations.OnDestroy;
-import org.example.framework.core.annotations.OnInit;
 import org.example.framework.web.DispatcherServlet;
+import org.example.framework.web.StaticResourceServlet;
 import org.example.framework.core.IOContainer;
 
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 public class MySpringApplication {
@@ -21,16 +25,16 @@ public class MySpringApplication {
     private Tomcat tomcat;
     private Thread serverThread;
     private IOContainer ioContainer;
+    //replaces Tomcat's worker pool in virtual thread mode
+    private ExecutorService requestExecutor;
 
-    private MySpringApplication(boolean serverApplication) {
-        ioContainer = IOContainer.getInstance();
+    private MySpringApplication(ApplicationConfig config) {
+        //creates the beans and runs their OnInit methods
+        ioContainer = IOContainer.initialize(config.isLazyInitialization());
         log.info("IOC container initialized");
-        //run Lifecycle beans
-        List<Method> onInitMethods = MethodScanner.scan("org", OnInit.class);
-        runMethods(onInitMethods);
 
         //tomcat
-        if (serverApplication) {
+        if (config.isServerApplication()) {
             int port = 8080;
             tomcat = new Tomcat();
             tomcat.setBaseDir("temp");
@@ -39,12 +43,30 @@ public class MySpringApplication {
             String docBase = new File(".").getAbsolutePath();
 
             Context context = tomcat.addContext(contextPath, docBase);
-            DispatcherServlet dispatcherServlet = (DispatcherServlet) ioContainer.getBean(DispatcherServlet.class);
+            DispatcherServlet dispatcherServlet = ioContainer.getBean(DispatcherServlet.class);
+            dispatcherServlet.setAsyncTimeout(config.getAsyncTimeout());
+            dispatcherServlet.setResponseCacheSize(config.getResponseCacheSize());
             Wrapper wrapper = Tomcat.addServlet(context, "dispatcher", dispatcherServlet);
             wrapper.setLoadOnStartup(1);
+            //handlers returning a CompletionStage release the container thread
+            wrapper.setAsyncSupported(true);
             context.addServletMappingDecoded("/*", "dispatcher");
 
-            tomcat.getConnector();
+            //the longer prefix wins over the dispatcher's /*
+            if (Files.isDirectory(config.getStaticLocation())) {
+                StaticResourceServlet staticResourceServlet = ioContainer.getBean(StaticResourceServlet.class);
+                staticResourceServlet.setLocation(config.getStaticLocation());
+                Tomcat.addServlet(context, "static", staticResourceServlet);
+                context.addServletMappingDecoded(config.getStaticPath() + "/*", "static");
+                log.info("Serving " + staticResourceServlet.getLocation() + " on " + config.getStaticPath());
+            }
+
+            Connector connector = tomcat.getConnector();
+            if (config.isVirtualThreads()) {
+                requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                connector.getProtocolHandler().setExecutor(requestExecutor);
+                log.info("Handling requests on virtual threads");
+            }
 
             try {
                 tomcat.start();
@@ -65,12 +87,19 @@ public class MySpringApplication {
     }
 
     public static MySpringApplication start() {
-        MySpringApplication application = new MySpringApplication(true);
-        return application;
+        return start(new ApplicationConfig());
     }
 
     public static MySpringApplication start(boolean serverApplication) {
-        MySpringApplication application = new MySpringApplication(serverApplication);
+        return start(new ApplicationConfig().setServerApplication(serverApplication));
+    }
+
+    /**
+     * e.g. {@code start(new ApplicationConfig().setServerApplication(false).setLazyInitialization(true))} for a batch
+     * worker that only creates the beans it actually uses
+     */
+    public static MySpringApplication start(ApplicationConfig config) {
+        MySpringApplication application = new MySpringApplication(config);
         return application;
     }
 
@@ -86,6 +115,11 @@ public class MySpringApplication {
                 if (serverThread != null) {
                     serverThread.interrupt();
                 }
+                if (requestExecutor != null) {
+                    requestExecutor.shutdown();
+                }
+                //the shutdown hook must not stop it again
+                tomcat = null;
                 log.info("Tomcat shutdown completed");
             } catch (LifecycleException e) {
                 log.severe("Failed to shutdown Tomcat");
@@ -98,8 +132,11 @@ public class MySpringApplication {
         for (Method method : methods) {
             try {
                 IOContainer container = IOContainer.getInstance();
-                Object bean = container.getBean(method.getDeclaringClass());
-                method.invoke(bean);
+                //lazy beans that were never used need no cleanup
+                Object bean = container.getBeans().get(method.getDeclaringClass().getName());
+                if (bean != null) {
+                    method.invoke(bean);
+                }
             } catch (InvocationTargetException | IllegalAccessException e) {
                 log.severe("Cannot execute method " + method.getName());
                 throw new RuntimeException(e);
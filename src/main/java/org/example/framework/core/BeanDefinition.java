@@ -0,0 +1,102 @@
+package org.example.framework.core;
+
+import org.example.framework.core.annotations.Scope;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A node of the bean dependency graph: a scanned class, a class required by an {@code @Inject} constructor,
+ * or the result of a {@code @Bean} method.
+ */
+class BeanDefinition {
+    //idle instances kept per request scoped bean
+    static final int POOL_SIZE = 256;
+
+    private final String name;
+    private final Class<?> type;
+    private final Method factoryMethod;
+    //beans that must be created before this one
+    private final List<BeanDefinition> dependencies = new ArrayList<>();
+    private final boolean lazy;
+    private final String scope;
+    //singletons only
+    private volatile Object instance;
+    //request scoped Resettable beans only, bounded and lock based so it suits virtual threads
+    private final ArrayBlockingQueue<Object> pool;
+    //session scoped only, two requests of one session must not both create the bean
+    private final ReentrantLock sessionLock;
+
+    BeanDefinition(String name, Class<?> type, Method factoryMethod, boolean lazy, String scope) {
+        this.name = name;
+        this.type = type;
+        this.factoryMethod = factoryMethod;
+        this.lazy = lazy;
+        this.scope = scope;
+        this.pool = scope.equals(Scope.REQUEST) && Resettable.class.isAssignableFrom(type) ? new ArrayBlockingQueue<>(POOL_SIZE) : null;
+        this.sessionLock = scope.equals(Scope.SESSION) ? new ReentrantLock() : null;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    Method getFactoryMethod() {
+        return factoryMethod;
+    }
+
+    List<BeanDefinition> getDependencies() {
+        return dependencies;
+    }
+
+    boolean isLazy() {
+        return lazy;
+    }
+
+    String getScope() {
+        return scope;
+    }
+
+    boolean isSingleton() {
+        return scope.equals(Scope.SINGLETON);
+    }
+
+    /**
+     * @return an idle request scoped instance, null if none is pooled
+     */
+    Object acquire() {
+        return pool == null ? null : pool.poll();
+    }
+
+    //a full pool drops the instance
+    void release(Object bean) {
+        if (pool != null && bean instanceof Resettable resettable) {
+            resettable.reset();
+            pool.offer(bean);
+        }
+    }
+
+    ReentrantLock getSessionLock() {
+        return sessionLock;
+    }
+
+    Object getInstance() {
+        return instance;
+    }
+
+    void setInstance(Object instance) {
+        this.instance = instance;
+    }
+
+    @Override
+    public String toString() {
+        return factoryMethod == null ? type.getName() : factoryMethod.getDeclaringClass().getName() + "." + factoryMethod.getName();
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.framework.core;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the container's beans. Definitions are indexed by the name they were registered under and
+ * by every superclass and interface of their type, lookups per type are cached in {@link ClassValue}s.
+ * <p>
+ * Changes create a new snapshot, so readers never lock and never see a half applied registration.
+ */
+class BeanRegistry {
+    /**
+     * Definitions by name and by type with the per type lookup caches. Only a change of the definitions replaces it,
+     * snapshots that merely add created beans share it, so the {@link ClassValue}s are not computed again.
+     */
+    private static final class TypeIndex {
+        private final Map<String, BeanDefinition> byName;
+        private final Map<Class<?>, List<BeanDefinition>> byType;
+
+        private final ClassValue<List<BeanDefinition>> assignable = new ClassValue<>() {
+            @Override
+            protected List<BeanDefinition> computeValue(Class<?> type) {
+                return byType.getOrDefault(type, Collections.emptyList());
+            }
+        };
+
+        private final ClassValue<Optional<BeanDefinition>> unique = new ClassValue<>() {
+            @Override
+            protected Optional<BeanDefinition> computeValue(Class<?> type) {
+                //the registered name wins, e.g. a @Bean method overriding a default
+                BeanDefinition definition = byName.get(type.getName());
+                if (definition != null) {
+                    return Optional.of(definition);
+                }
+                List<BeanDefinition> candidates = assignable.get(type);
+                if (candidates.size() > 1) {
+                    throw new RuntimeException("Multiple beans found for type: " + type.getName() + " " + candidates);
+                }
+                return candidates.stream().findFirst();
+            }
+        };
+
+        private TypeIndex(Map<String, BeanDefinition> byName, List<BeanDefinition> definitions) {
+            this.byName = byName;
+            this.byType = indexByType(definitions);
+        }
+    }
+
+    //dependencies before dependents, registered beans last
+    private final List<BeanDefinition> definitions;
+    //created beans by every name they are known under
+    private final Map<String, Object> beans;
+    private final TypeIndex index;
+
+    BeanRegistry(Map<String, BeanDefinition> byName, List<BeanDefinition> definitions) {
+        this(List.copyOf(definitions), Map.of(), new TypeIndex(Map.copyOf(byName), definitions));
+    }
+
+    private BeanRegistry(List<BeanDefinition> definitions, Map<String, Object> beans, TypeIndex index) {
+        this.definitions = definitions;
+        this.beans = beans;
+        this.index = index;
+    }
+
+    /**
+     * @return a snapshot with the created beans added, definitions and type caches are shared
+     */
+    BeanRegistry withBeans(Map<String, Object> created) {
+        Map<String, Object> beans = new HashMap<>(this.beans);
+        beans.putAll(created);
+        return new BeanRegistry(definitions, Map.copyOf(beans), index);
+    }
+
+    /**
+     * @return a snapshot with the definition registered under its name, replacing the previous one
+     */
+    BeanRegistry withDefinition(BeanDefinition definition, Map<String, Object> created) {
+        Map<String, BeanDefinition> byName = new HashMap<>(index.byName);
+        BeanDefinition replaced = byName.put(definition.getName(), definition);
+        List<BeanDefinition> definitions = new ArrayList<>(this.definitions);
+        if (replaced != null && !byName.containsValue(replaced)) {
+            definitions.remove(replaced);
+        }
+        definitions.add(definition);
+        Map<String, Object> beans = new HashMap<>(this.beans);
+        beans.putAll(created);
+        List<BeanDefinition> copy = List.copyOf(definitions);
+        return new BeanRegistry(copy, Map.copyOf(beans), new TypeIndex(Map.copyOf(byName), copy));
+    }
+
+    /**
+     * @return a snapshot without the definition registered under the name
+     */
+    BeanRegistry without(String name) {
+        Map<String, BeanDefinition> byName = new HashMap<>(index.byName);
+        BeanDefinition removed = byName.remove(name);
+        List<BeanDefinition> definitions = new ArrayList<>(this.definitions);
+        if (removed != null && !byName.containsValue(removed)) {
+            definitions.remove(removed);
+        }
+        Map<String, Object> beans = new HashMap<>(this.beans);
+        beans.remove(name);
+        List<BeanDefinition> copy = List.copyOf(definitions);
+        return new BeanRegistry(copy, Map.copyOf(beans), new TypeIndex(Map.copyOf(byName), copy));
+    }
+
+    /**
+     * @return the definition registered under the type's name, or else the only one assignable to it, null if there is none
+     * @throws RuntimeException if several beans are assignable to the type
+     */
+    BeanDefinition get(Class<?> type) {
+        return index.unique.get(type).orElse(null);
+    }
+
+    BeanDefinition get(String name) {
+        return index.byName.get(name);
+    }
+
+    /**
+     * @return all definitions assignable to the type
+     */
+    List<BeanDefinition> getAll(Class<?> type) {
+        return index.assignable.get(type);
+    }
+
+    List<BeanDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    Map<String, Object> getBeans() {
+        return beans;
+    }
+
+    private static Map<Class<?>, List<BeanDefinition>> indexByType(List<BeanDefinition> definitions) {
+        Map<Class<?>, List<BeanDefinition>> byType = new HashMap<>();
+        for (BeanDefinition definition : definitions) {
+            for (Class<?> type : getTypeHierarchy(definition.getType())) {
+                byType.computeIfAbsent(type, t -> new ArrayList<>()).add(definition);
+            }
+        }
+        byType.replaceAll((type, list) -> List.copyOf(list));
+        return Map.copyOf(byType);
+    }
+
+    private static Set<Class<?>> getTypeHierarchy(Class<?> type) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            Class<?> current = pending.poll();
+            if (!hierarchy.add(current)) {
+                continue;
+            }
+            if (current.getSuperclass() != null) {
+                pending.add(current.getSuperclass());
+            }
+            pending.addAll(Arrays.asList(current.getInterfaces()));
+        }
+        return hierarchy;
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.framework.core;
+
+import org.example.framework.core.index.IndexProcessor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Every class of a package together with its annotated classes and methods, built in a single scan.
+ * Indexes are cached per package, so all scanners of a startup share one classpath walk.
+ * <p>
+ * When the build generated {@value IndexProcessor#INDEX_LOCATION} the index is read from there and the
+ * classpath is only scanned for annotations the generated index does not cover.
+ * <p>
+ * A class annotated after the index was generated is missing from it until the build runs the processor again.
+ * Run with -D{@value #IGNORE_INDEX_PROPERTY}=true to always scan, e.g. after a partial IDE build. For class
+ * directories the index is compared with the class files and a warning names the newer ones.
+ */
+public class ClassIndex {
+    private static final Logger log = Logger.getLogger(ClassIndex.class.getName());
+    public static final String IGNORE_INDEX_PROPERTY = "myspring.index.ignore";
+    private static final Map<String, ClassIndex> indexes = new ConcurrentHashMap<>();
+    //javac writes the class files after the processor wrote the index, those of the same build are not newer than this
+    private static final long STALE_INDEX_MARGIN_MILLIS = 30_000;
+
+    private final String basePackage;
+    private final List<Class<?>> classes;
+    private final Map<Class<? extends Annotation>, List<Class<?>>> annotatedClasses = new HashMap<>();
+    private final Map<Class<? extends Annotation>, List<Method>> annotatedMethods = new HashMap<>();
+    //annotations covered by a generated index, null if the whole package was scanned
+    private final Set<String> indexedAnnotations;
+
+    private ClassIndex(String basePackage, List<Class<?>> classes) {
+        this.basePackage = basePackage;
+        this.classes = classes;
+        this.indexedAnnotations = null;
+        for (Class<?> clazz : classes) {
+            try {
+                for (Annotation annotation : clazz.getDeclaredAnnotations()) {
+                    annotatedClasses.computeIfAbsent(annotation.annotationType(), a -> new ArrayList<>()).add(clazz);
+                }
+                for (Method method : clazz.getDeclaredMethods()) {
+                    for (Annotation annotation : method.getDeclaredAnnotations()) {
+                        annotatedMethods.computeIfAbsent(annotation.annotationType(), a -> new ArrayList<>()).add(method);
+                    }
+                }
+            } catch (RuntimeException | LinkageError e) {
+                // Skip classes whose members or annotations cannot be resolved
+            }
+        }
+    }
+
+    private ClassIndex(String basePackage, Set<String> indexedAnnotations) {
+        this.basePackage = basePackage;
+        this.classes = new ArrayList<>();
+        this.indexedAnnotations = indexedAnnotations;
+    }
+
+    public static ClassIndex of(String basePackage) {
+        return indexes.computeIfAbsent(basePackage, ClassIndex::load);
+    }
+
+    private static ClassIndex load(String basePackage) {
+        if (!Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            try {
+                ClassIndex index = read(basePackage);
+                if (index != null) {
+                    return index;
+                }
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                log.warning("Cannot read " + IndexProcessor.INDEX_LOCATION + ", scanning " + basePackage + " instead: " + e);
+            }
+        }
+        return scan(basePackage);
+    }
+
+    private static ClassIndex scan(String basePackage) {
+        long start = System.currentTimeMillis();
+        ClassIndex index = new ClassIndex(basePackage, ClassScanner.scan(basePackage));
+        log.info("Indexed " + index.classes.size() + " classes of " + basePackage + " in " + (System.currentTimeMillis() - start) + "ms");
+        return index;
+    }
+
+    private static ClassIndex read(String basePackage) throws IOException, ClassNotFoundException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = ClassIndex.class.getClassLoader();
+        }
+        List<URL> resources = Collections.list(classLoader.getResources(IndexProcessor.INDEX_LOCATION));
+        if (resources.isEmpty()) {
+            return null;
+        }
+
+        List<String[]> entries = new ArrayList<>();
+        Set<String> indexedAnnotations = new HashSet<>();
+        for (URL resource : resources) {
+            warnIfStale(resource, basePackage);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] entry = line.trim().split(" ");
+                    if (entry[0].equals("annotation")) {
+                        indexedAnnotations.add(entry[1]);
+                    } else if (entry.length == 3 && isInPackage(entry[2], basePackage)) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+
+        ClassIndex index = new ClassIndex(basePackage, indexedAnnotations);
+        Set<Class<?>> classes = new TreeSet<>(Comparator.comparing(Class::getName));
+        for (String[] entry : entries) {
+            Class<? extends Annotation> annotation = Class.forName(entry[1], false, classLoader).asSubclass(Annotation.class);
+            if (entry[0].equals("type")) {
+                Class<?> clazz = Class.forName(entry[2], false, classLoader);
+                index.annotatedClasses.computeIfAbsent(annotation, a -> new ArrayList<>()).add(clazz);
+                classes.add(clazz);
+            } else if (entry[0].equals("method")) {
+                int separator = entry[2].indexOf('#');
+                Class<?> clazz = Class.forName(entry[2].substring(0, separator), false, classLoader);
+                String methodName = entry[2].substring(separator + 1);
+                //overloads share one entry
+                for (Method method : clazz.getDeclaredMethods()) {
+                    if (method.getName().equals(methodName) && method.isAnnotationPresent(annotation)) {
+                        index.annotatedMethods.computeIfAbsent(annotation, a -> new ArrayList<>()).add(method);
+                    }
+                }
+                classes.add(clazz);
+            }
+        }
+        index.classes.addAll(classes);
+        index.annotatedClasses.values().forEach(list -> list.sort(Comparator.comparing(Class::getName)));
+        log.info("Read " + entries.size() + " entries of " + basePackage + " from " + IndexProcessor.INDEX_LOCATION);
+        return index;
+    }
+
+    //a package boundary, scanning org must not pick up organization.Foo
+    private static boolean isInPackage(String name, String basePackage) {
+        return basePackage.isEmpty() || name.startsWith(basePackage + ".");
+    }
+
+    //only class directories, a jar is built together with its index
+    private static void warnIfStale(URL resource, String basePackage) {
+        if (!resource.getProtocol().equals("file")) {
+            return;
+        }
+        try {
+            Path index = Path.of(resource.toURI());
+            Path root = index.getRoot().resolve(index.subpath(0, index.getNameCount() - Path.of(IndexProcessor.INDEX_LOCATION).getNameCount()));
+            Path packageDirectory = basePackage.isEmpty() ? root : root.resolve(basePackage.replace('.', '/'));
+            if (!Files.isDirectory(packageDirectory)) {
+                return;
+            }
+            FileTime generated = FileTime.fromMillis(Files.getLastModifiedTime(index).toMillis() + STALE_INDEX_MARGIN_MILLIS);
+            try (Stream<Path> files = Files.walk(packageDirectory)) {
+                Optional<Path> newer = files
+                        .filter(file -> file.toString().endsWith(".class"))
+                        .filter(file -> isNewer(file, generated))
+                        .findFirst();
+                newer.ifPresent(file -> log.warning(index + " is older than " + file + ", classes annotated since are missing."
+                        + " Rebuild or run with -D" + IGNORE_INDEX_PROPERTY + "=true"));
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            log.fine("Cannot check " + resource + " for classes compiled after it: " + e);
+        }
+    }
+
+    private static boolean isNewer(Path file, FileTime time) {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(time) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the scanned classes, or when read from a generated index the classes it lists
+     */
+    public List<Class<?>> getClasses() {
+        return Collections.unmodifiableList(classes);
+    }
+
+    public List<Class<?>> getClassesAnnotatedWith(Class<? extends Annotation> annotation) {
+        if (!isCovered(annotation)) {
+            return scanned().getClassesAnnotatedWith(annotation);
+        }
+        return Collections.unmodifiableList(annotatedClasses.getOrDefault(annotation, Collections.emptyList()));
+    }
+
+    public List<Method> getMethodsAnnotatedWith(Class<? extends Annotation> annotation) {
+        if (!isCovered(annotation)) {
+            return scanned().getMethodsAnnotatedWith(annotation);
+        }
+        return Collections.unmodifiableList(annotatedMethods.getOrDefault(annotation, Collections.emptyList()));
+    }
+
+    private boolean isCovered(Class<? extends Annotation> annotation) {
+        return indexedAnnotations == null || indexedAnnotations.contains(annotation.getName());
+    }
+
+    private ClassIndex scanned() {
+        return indexes.compute(basePackage + "#scanned", (key, index) -> index != null ? index : scan(basePackage));
+    }
+}
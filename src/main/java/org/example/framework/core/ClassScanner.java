@@ -1,15 +1,25 @@
 package org.example.framework.core;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 public class ClassScanner {
     private static final Logger log = Logger.getLogger(ClassScanner.class.getName());
@@ -22,85 +32,113 @@ public class ClassScanner {
     );
 
     protected final String basePackage;
-    protected final List<Class<?>> scannedClasses;
+    private final ClassLoader classLoader;
 
     protected ClassScanner(String basePackage) {
         this.basePackage = basePackage;
-        this.scannedClasses = new ArrayList<>();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = ClassScanner.class.getClassLoader();
+        }
+        this.classLoader = classLoader;
     }
 
     public static List<Class<?>> scan(String basePackage) {
         return new ClassScanner(basePackage).scanPackage();
     }
 
+    /**
+     * Loads every class under the base package without initializing it.
+     * Directories and jars are listed and their classes loaded in parallel.
+     *
+     * @return the classes sorted by name
+     */
     protected List<Class<?>> scanPackage() {
+        List<URL> resources;
         try {
-            String path = basePackage.replace('.', '/');
-            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-            if (classLoader == null) {
-                classLoader = ClassScanner.class.getClassLoader();
-            }
-
-            Enumeration<URL> resources = classLoader.getResources(path);
-            while (resources.hasMoreElements()) {
-                URL resource = resources.nextElement();
-                if (resource != null) {
-                    processResource(resource);
-                }
-            }
-        } catch (Exception e) {
+            resources = Collections.list(classLoader.getResources(basePackage.replace('.', '/')));
+        } catch (IOException e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return scannedClasses;
-    }
 
-    private void processResource(URL resource) throws Exception {
-        String protocol = resource.getProtocol();
-        if ("file".equals(protocol)) {
-            scanDirectory(new File(URLDecoder.decode(resource.getFile(), "UTF-8")));
-        } else if ("jar".equals(protocol)) {
-            scanJar(resource);
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            //list first, a flatMap would load all classes of one directory or jar on a single thread
+            List<String> classNames = pool.submit(() -> resources.parallelStream()
+                            .flatMap(this::listClassNames)
+                            .filter(className -> EXCLUDED_PACKAGES.stream().noneMatch(className::startsWith))
+                            .toList())
+                    .get();
+            return pool.submit(() -> classNames.parallelStream()
+                            .map(this::loadClass)
+                            .filter(Objects::nonNull)
+                            .sorted(Comparator.comparing(Class::getName))
+                            .toList())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while scanning " + basePackage, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to scan " + basePackage, e.getCause());
+        } finally {
+            pool.shutdown();
         }
     }
 
-    private void scanDirectory(File directory) {
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    scanDirectory(file);
-                } else if (file.getName().endsWith(".class")) {
-                    processClass(fileToClassName(file));
-                }
+    private Stream<String> listClassNames(URL resource) {
+        try {
+            String protocol = resource.getProtocol();
+            if ("file".equals(protocol)) {
+                return scanDirectory(new File(URLDecoder.decode(resource.getFile(), StandardCharsets.UTF_8)));
+            } else if ("jar".equals(protocol)) {
+                return scanJar(resource);
             }
+        } catch (IOException | UncheckedIOException e) {
+            log.warning("Cannot scan " + resource + ": " + e.getMessage());
         }
+        return Stream.empty();
     }
 
-    private String fileToClassName(File file) {
-        String filePath = file.getAbsolutePath();
-        String className = filePath.substring(
-                filePath.indexOf(basePackage.replace('.', File.separatorChar)),
-                filePath.length() - 6  // remove .class
-        );
+    private Stream<String> scanDirectory(File directory) throws IOException {
+        //the package directory, classes are named relative to its parent
+        Path root = directory.toPath();
+        Path classpathRoot = root;
+        for (int i = 0; i < basePackage.split("\\.").length; i++) {
+            classpathRoot = classpathRoot.getParent();
+        }
+        Path base = classpathRoot;
+        List<String> classNames;
+        try (Stream<Path> files = Files.walk(root)) {
+            classNames = files
+                    .filter(file -> file.getFileName().toString().endsWith(".class"))
+                    .map(file -> fileToClassName(base.relativize(file)))
+                    .toList();
+        }
+        return classNames.stream();
+    }
+
+    private String fileToClassName(Path relativePath) {
+        String className = relativePath.toString();
+        className = className.substring(0, className.length() - 6);  // remove .class
         return className.replace(File.separatorChar, '.');
     }
 
-    private void scanJar(URL resource) throws Exception {
-        String jarPath = URLDecoder.decode(resource.getFile(), "UTF-8");
+    private Stream<String> scanJar(URL resource) throws IOException {
+        String jarPath = URLDecoder.decode(resource.getFile(), StandardCharsets.UTF_8);
         if (jarPath.contains("!")) {
             jarPath = jarPath.substring(5, jarPath.indexOf("!"));
         }
 
         try (JarFile jarFile = new JarFile(jarPath)) {
             String packagePath = basePackage.replace('.', '/');
-            jarFile.entries().asIterator().forEachRemaining(entry -> {
-                if (isClassFile(entry, packagePath)) {
-                    String className = entry.getName()
+            return jarFile.stream()
+                    .filter(entry -> isClassFile(entry, packagePath))
+                    .map(entry -> entry.getName()
                             .substring(0, entry.getName().length() - 6)
-                            .replace('/', '.');
-                    processClass(className);
-                }
-            });
+                            .replace('/', '.'))
+                    .toList()
+                    .stream();
         }
     }
 
@@ -109,22 +147,18 @@ public class ClassScanner {
                 entry.getName().endsWith(".class");
     }
 
-    protected void processClass(String className) {
-        if (EXCLUDED_PACKAGES.stream().anyMatch(className::startsWith)) {
-            return;
-        }
-
+    private Class<?> loadClass(String className) {
         try {
-            Class<?> clazz = Class.forName(className);
-            if (shouldIncludeClass(clazz)) {
-                scannedClasses.add(clazz);
-            }
+            //initialize=false, static initializers run when a class is actually used
+            Class<?> clazz = Class.forName(className, false, classLoader);
+            return shouldIncludeClass(clazz) ? clazz : null;
         } catch (ClassNotFoundException | LinkageError e) {
             // Skip problematic classes
+            return null;
         }
     }
 
     protected boolean shouldIncludeClass(Class<?> clazz) {
         return true; // Base implementation includes all classes
     }
-}
\ No newline at end of file
+}
@@ -1,135 +1,615 @@
 package org.example.framework.core;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.example.framework.core.annotations.*;
 import org.example.framework.security.session.HttpSessionService;
 import org.example.framework.security.session.SessionService;
 import org.example.framework.web.annotations.Controller;
 
-import javax.xml.stream.util.XMLEventAllocator;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 
 public class IOContainer {
     private static final Logger log = Logger.getLogger(IOContainer.class.getName());
-    private static final IOContainer instance = new IOContainer();
+    private static final String SESSION_ATTRIBUTE_PREFIX = "myspring.bean.";
+    //not created in IOContainer's class initialization, so worker threads can use the class while beans are created
+    private static volatile IOContainer instance;
 
     public static IOContainer getInstance() {
+        IOContainer container = instance;
+        return container != null ? container : initialize(false);
+    }
+
+    /**
+     * Creates the container unless it already exists.
+     *
+     * @param lazyInitialization true to create every bean on first use, as if all were marked {@link Lazy}
+     */
+    public static synchronized IOContainer initialize(boolean lazyInitialization) {
+        if (instance == null) {
+            instance = new IOContainer(lazyInitialization);
+            //OnInit methods may look up the container, it must be published before they run
+            instance.runEagerInitMethods();
+            instance.checkSessionScopedBeans();
+        } else if (instance.lazyInitialization != lazyInitialization) {
+            log.warning("IOContainer is already initialized with lazyInitialization=" + instance.lazyInitialization);
+        }
         return instance;
     }
 
-    private Map<String, Object> beans = new HashMap<>();
+    private final boolean lazyInitialization;
+    //bean type name to the definition creating it, only used while the graph is built
+    private final Map<String, BeanDefinition> providers = new HashMap<>();
+    //replaced as a whole on every change, request threads read it without locking
+    private volatile BeanRegistry registry;
+    //serializes bean creation and registration after startup, unlike synchronized it does not pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<BeanDefinition, List<Method>> initMethods = new IdentityHashMap<>();
+    //beans created by the constructor whose OnInit methods have not run yet
+    private List<BeanDefinition> eagerOrder;
 
-    //todo too long
-    private IOContainer() {
-        List<Class<?>> beanClasses = AnnotationClassScanner.scanForAnnotation(Component.class);
+    private IOContainer(boolean lazyInitialization) {
+        long start = System.currentTimeMillis();
+        this.lazyInitialization = lazyInitialization;
+        Set<Class<?>> beanClasses = new LinkedHashSet<>(AnnotationClassScanner.scanForAnnotation(Component.class));
         beanClasses.addAll(AnnotationClassScanner.scanForAnnotation(Configuration.class));
         beanClasses.addAll(AnnotationClassScanner.scanForAnnotation(Service.class));
         beanClasses.addAll(AnnotationClassScanner.scanForAnnotation(Controller.class));
         List<Method> beanMethods = MethodScanner.scan("org", Bean.class);
 
-        beanClasses.forEach(clazz -> {
-            Object instance = createBean(clazz);
-            beans.put(clazz.getName(), instance);
-        });
+        List<BeanDefinition> definitions = new ArrayList<>();
+        for (Class<?> clazz : beanClasses) {
+            define(new BeanDefinition(clazz.getName(), clazz, null, isLazy(clazz), getScope(clazz.getAnnotation(Scope.class))), definitions);
+        }
+        configureDefaults(definitions);
+        for (Method beanMethod : beanMethods) {
+            Class<?> type = beanMethod.getReturnType();
+            BeanDefinition definition = define(new BeanDefinition(type.getName(), type, beanMethod, isLazy(beanMethod), getScope(beanMethod.getAnnotation(Scope.class))), definitions);
+            //overwrite interfaces
+            for (Class<?> anInterface : type.getInterfaces()) {
+                providers.put(anInterface.getName(), definition);
+            }
+        }
+        //constructor dependencies missing a definition get one, so the list may grow
+        for (int i = 0; i < definitions.size(); i++) {
+            resolveDependencies(definitions.get(i), definitions);
+        }
+        for (Method method : MethodScanner.scan("org", OnInit.class)) {
+            BeanDefinition definition = providers.get(method.getDeclaringClass().getName());
+            if (definition == null) {
+                throw new RuntimeException("No bean found for type: " + method.getDeclaringClass().getName());
+            }
+            initMethods.computeIfAbsent(definition, d -> new ArrayList<>()).add(method);
+        }
 
-        configureDefaults();
+        List<BeanDefinition> creationOrder = sortByDependencies(definitions);
+        registry = new BeanRegistry(providers, creationOrder);
+        eagerOrder = getEagerDefinitions(creationOrder);
+        runInDependencyOrder(eagerOrder, definition -> definition.setInstance(createBean(definition)));
+        Map<String, Object> created = new HashMap<>();
+        for (BeanDefinition definition : definitions) {
+            if (definition.getInstance() != null) {
+                collectNames(definition, created);
+            }
+        }
+        registry = registry.withBeans(created);
+        log.info("Created " + eagerOrder.size() + " of " + definitions.size() + " beans in " + (System.currentTimeMillis() - start) + "ms");
+    }
 
-        for (Method beanMethod : beanMethods) {
-            Object component = getBean(beanMethod.getDeclaringClass());
-            try {
-                Object bean = beanMethod.invoke(component);
-                beans.put(bean.getClass().getName(), bean);
-                //overwrite interfaces
-                for (Class<?> anInterface : bean.getClass().getInterfaces()) {
-                    beans.put(anInterface.getName(), bean);
-                }
+    private void runEagerInitMethods() {
+        List<BeanDefinition> order = eagerOrder;
+        eagerOrder = null;
+        runInDependencyOrder(order, definition -> runInitMethods(definition, definition.getInstance()));
+    }
 
-            } catch (InvocationTargetException | IllegalAccessException e) {
-                log.severe("Cannot register bean from method " + beanMethod.getName() + "." + beanMethod.getDeclaringClass().getName() + " is not a registered component");
-                throw new RuntimeException(e);
+    //fails at startup instead of on the first request creating such a bean
+    private void checkSessionScopedBeans() {
+        List<BeanDefinition> sessionScoped = registry.getDefinitions().stream()
+                .filter(definition -> definition.getScope().equals(Scope.SESSION))
+                .toList();
+        if (sessionScoped.isEmpty()) {
+            return;
+        }
+        SessionService sessionService = getBean(SessionService.class);
+        for (BeanDefinition definition : sessionScoped) {
+            if (!sessionService.supportsSessionScopedBean(definition.getType())) {
+                throw new RuntimeException(sessionService.getClass().getSimpleName() + " cannot keep session scoped bean " + definition + ", use HttpSessionService");
             }
         }
+    }
 
-        // Inject dependencies
-        beans.values().forEach(this::injectFieldDependencies);
+    private void configureDefaults(List<BeanDefinition> definitions) {
+        define(new BeanDefinition(SessionService.class.getName(), HttpSessionService.class, null, lazyInitialization, Scope.SINGLETON), definitions);
     }
 
-    private void configureDefaults() {
-        beans.put(SessionService.class.getName(), new HttpSessionService());
+    private static String getScope(Scope scope) {
+        if (scope == null) {
+            return Scope.SINGLETON;
+        }
+        return switch (scope.value()) {
+            case Scope.SINGLETON, Scope.REQUEST, Scope.SESSION, Scope.PROTOTYPE -> scope.value();
+            default -> throw new RuntimeException("Unknown scope: " + scope.value());
+        };
     }
 
-    //todo to much nesting
-    private void injectFieldDependencies(Object instance) {
-        Class<?> clazz = instance.getClass();
-        for (Field field : clazz.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Inject.class)) {
-                Object dependency = beans.get(field.getType().getName());
-                if (dependency == null) {
-                    log.severe("No bean found for dependency: " + field.getType().getName());
-                    continue;
-                }
-                try {
-                    field.setAccessible(true);
-                    field.set(instance, dependency);
-                    System.out.println();
-                } catch (IllegalAccessException e) {
-                    log.severe("Failed to inject dependency for field: " + field.getName());
-                    e.printStackTrace();
+    private boolean isLazy(Class<?> clazz) {
+        return lazyInitialization || clazz.isAnnotationPresent(Lazy.class);
+    }
+
+    private boolean isLazy(Method beanMethod) {
+        return lazyInitialization || beanMethod.isAnnotationPresent(Lazy.class);
+    }
+
+    private BeanDefinition define(BeanDefinition definition, List<BeanDefinition> definitions) {
+        definitions.add(definition);
+        providers.put(definition.getName(), definition);
+        return definition;
+    }
+
+    //every name the created bean is known under
+    private static void collectNames(BeanDefinition definition, Map<String, Object> beans) {
+        Object bean = definition.getInstance();
+        beans.put(definition.getName(), bean);
+        if (definition.getFactoryMethod() != null) {
+            beans.put(bean.getClass().getName(), bean);
+            for (Class<?> anInterface : bean.getClass().getInterfaces()) {
+                beans.put(anInterface.getName(), bean);
+            }
+        }
+    }
+
+    private void resolveDependencies(BeanDefinition definition, List<BeanDefinition> definitions) {
+        Method factoryMethod = definition.getFactoryMethod();
+        if (factoryMethod != null) {
+            BeanDefinition component = providers.get(factoryMethod.getDeclaringClass().getName());
+            if (component == null) {
+                log.severe("Cannot register bean from method " + factoryMethod.getName() + "." + factoryMethod.getDeclaringClass().getName() + " is not a registered component");
+                throw new RuntimeException("No bean found for type: " + factoryMethod.getDeclaringClass().getName());
+            }
+            definition.getDependencies().add(component);
+            return;
+        }
+
+        InjectionPlan plan = InjectionPlan.of(definition.getType());
+        for (Class<?> paramType : plan.getParameterTypes()) {
+            BeanDefinition dependency = providers.get(paramType.getName());
+            if (dependency == null) {
+                // Dependency is not a registered bean, create it as well
+                dependency = define(new BeanDefinition(paramType.getName(), paramType, null, definition.isLazy(), Scope.SINGLETON), definitions);
+            }
+            addDependency(definition, dependency, paramType);
+        }
+        for (int i = 0; i < plan.getFieldCount(); i++) {
+            Class<?> fieldType = plan.getFieldType(i);
+            BeanDefinition dependency = providers.get(fieldType.getName());
+            //a lazy bean behind an interface is injected as a proxy, it need not exist first
+            if (dependency != null && !(dependency.isLazy() && fieldType.isInterface())) {
+                addDependency(definition, dependency, fieldType);
+            }
+        }
+    }
+
+    //scoped beans are looked up when they are injected, they never have to exist before their dependents
+    private static void addDependency(BeanDefinition definition, BeanDefinition dependency, Class<?> type) {
+        if (dependency.isSingleton()) {
+            definition.getDependencies().add(dependency);
+            return;
+        }
+        boolean proxied = !dependency.getScope().equals(Scope.PROTOTYPE) && !dependency.getScope().equals(definition.getScope());
+        if (proxied && !type.isInterface()) {
+            throw new RuntimeException(dependency.getScope() + " scoped bean " + dependency + " must be injected into " + definition + " through an interface");
+        }
+    }
+
+    /**
+     * Orders the definitions so that every bean comes after its dependencies.
+     *
+     * @throws RuntimeException naming the whole chain if the dependencies contain a cycle
+     */
+    private static List<BeanDefinition> sortByDependencies(List<BeanDefinition> definitions) {
+        List<BeanDefinition> order = new ArrayList<>(definitions.size());
+        Set<BeanDefinition> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<BeanDefinition> path = new ArrayDeque<>();
+        for (BeanDefinition definition : definitions) {
+            visit(definition, visited, path, order);
+        }
+        return order;
+    }
+
+    private static void visit(BeanDefinition definition, Set<BeanDefinition> visited, Deque<BeanDefinition> path, List<BeanDefinition> order) {
+        if (visited.contains(definition)) {
+            return;
+        }
+        if (path.contains(definition)) {
+            StringBuilder chain = new StringBuilder();
+            Iterator<BeanDefinition> iterator = path.descendingIterator();
+            while (iterator.hasNext()) {
+                BeanDefinition current = iterator.next();
+                if (chain.length() > 0 || current == definition) {
+                    chain.append(current).append(" -> ");
                 }
             }
+            chain.append(definition);
+            log.severe("Circular dependency: " + chain);
+            throw new RuntimeException("Circular dependency: " + chain);
+        }
+        path.push(definition);
+        for (BeanDefinition dependency : definition.getDependencies()) {
+            visit(dependency, visited, path, order);
+        }
+        path.pop();
+        visited.add(definition);
+        order.add(definition);
+    }
+
+    /**
+     * @return the beans created at startup, those not lazy and everything they depend on, in creation order
+     */
+    private static List<BeanDefinition> getEagerDefinitions(List<BeanDefinition> creationOrder) {
+        Set<BeanDefinition> eager = Collections.newSetFromMap(new IdentityHashMap<>());
+        //dependents come after their dependencies, so walking backwards sees them first
+        for (int i = creationOrder.size() - 1; i >= 0; i--) {
+            BeanDefinition definition = creationOrder.get(i);
+            if (definition.isSingleton() && (!definition.isLazy() || eager.contains(definition))) {
+                eager.add(definition);
+                eager.addAll(definition.getDependencies());
+            }
+        }
+        return creationOrder.stream().filter(eager::contains).toList();
+    }
+
+    /**
+     * Runs the action for every definition on a bounded pool, each as soon as the actions of its dependencies completed.
+     * Independent branches run in parallel, so the total time follows the longest dependency chain.
+     */
+    private static void runInDependencyOrder(List<BeanDefinition> order, Consumer<BeanDefinition> action) {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), order.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<BeanDefinition, CompletableFuture<Void>> futures = new IdentityHashMap<>();
+            for (BeanDefinition definition : order) {
+                CompletableFuture<?>[] dependencies = definition.getDependencies().stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                futures.put(definition, CompletableFuture.allOf(dependencies).thenRunAsync(() -> action.accept(definition), executor));
+            }
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void runInitMethods(BeanDefinition definition, Object bean) {
+        for (Method method : initMethods.getOrDefault(definition, Collections.emptyList())) {
+            try {
+                method.invoke(bean);
+            } catch (InvocationTargetException | IllegalAccessException e) {
+                log.severe("Cannot execute method " + method.getName());
+                throw new RuntimeException(e);
+            }
         }
     }
 
-    //todo nesting
-    private Object createBean(Class<?> clazz) {
+    /**
+     * Creates a lazy bean with its dependencies and runs its {@link OnInit} methods, once.
+     */
+    private Object getOrCreate(BeanDefinition definition) {
+        lock.lock();
         try {
-            // Check for @Inject constructor
-            for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
-                if (constructor.isAnnotationPresent(Inject.class)) {
-                    Class<?>[] paramTypes = constructor.getParameterTypes();
-                    Object[] params = new Object[paramTypes.length];
-
-                    // Resolve each parameter
-                    for (int i = 0; i < paramTypes.length; i++) {
-                        String dependencyName = paramTypes[i].getName();
-                        Object dependency = beans.get(dependencyName);
-
-                        if (dependency == null) {
-                            // Dependency is not yet created, create it now
-                            dependency = createBean(paramTypes[i]);
-                            beans.put(dependencyName, dependency); // Store the newly created dependency
+            Object bean = definition.getInstance();
+            if (bean != null) {
+                return bean;
+            }
+            for (BeanDefinition dependency : definition.getDependencies()) {
+                getOrCreate(dependency);
+            }
+            bean = createBean(definition);
+            definition.setInstance(bean);
+            Map<String, Object> created = new HashMap<>();
+            collectNames(definition, created);
+            registry = registry.withBeans(created);
+            runInitMethods(definition, bean);
+            log.info("Created lazy bean " + definition);
+            return bean;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the singleton, creating it if it is lazy, or the instance of the current scope
+     */
+    private Object getInstance(BeanDefinition definition) {
+        if (!definition.isSingleton()) {
+            return getScopedBean(definition);
+        }
+        Object bean = definition.getInstance();
+        return bean != null ? bean : getOrCreate(definition);
+    }
+
+    private Object getScopedBean(BeanDefinition definition) {
+        switch (definition.getScope()) {
+            case Scope.PROTOTYPE:
+                return createScopedBean(definition);
+            case Scope.REQUEST: {
+                RequestScope scope = getRequestScope(definition);
+                Object bean = scope.get(definition);
+                if (bean == null) {
+                    bean = definition.acquire();
+                    if (bean == null) {
+                        bean = createScopedBean(definition);
+                    }
+                    scope.put(definition, bean);
+                }
+                return bean;
+            }
+            case Scope.SESSION: {
+                HttpServletRequest request = getRequestScope(definition).getRequest();
+                SessionService sessionService = getBean(SessionService.class);
+                String attribute = SESSION_ATTRIBUTE_PREFIX + definition.getName();
+                Object bean = sessionService.getAttribute(request, attribute);
+                if (bean == null) {
+                    //per definition, unlike the container lock it does not hold up other beans
+                    ReentrantLock sessionLock = definition.getSessionLock();
+                    sessionLock.lock();
+                    try {
+                        bean = sessionService.getAttribute(request, attribute);
+                        if (bean == null) {
+                            bean = createScopedBean(definition);
+                            sessionService.setAttribute(request, attribute, bean);
                         }
-                        params[i] = dependency;
+                    } finally {
+                        sessionLock.unlock();
                     }
-                    return constructor.newInstance(params); // Instantiate the bean with resolved dependencies
                 }
+                return bean;
+            }
+            default:
+                throw new RuntimeException("Unknown scope: " + definition.getScope());
+        }
+    }
+
+    private static RequestScope getRequestScope(BeanDefinition definition) {
+        RequestScope scope = RequestScope.current();
+        if (scope == null) {
+            throw new RuntimeException("No request in progress for " + definition.getScope() + " scoped bean " + definition);
+        }
+        return scope;
+    }
+
+    private Object createScopedBean(BeanDefinition definition) {
+        for (BeanDefinition dependency : definition.getDependencies()) {
+            getInstance(dependency);
+        }
+        Object bean = createBean(definition);
+        runInitMethods(definition, bean);
+        return bean;
+    }
+
+    //stands in for a lazy bean until its first method call, or for the current instance of a scoped bean
+    private Object createProxy(Class<?> type, BeanDefinition definition) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object target = getInstance(definition);
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
             }
+        });
+    }
+
+    /**
+     * @return the value injected into a field or constructor parameter of the dependent bean, null for beans registered from outside
+     */
+    private Object resolveDependency(Class<?> type, BeanDefinition dependency, BeanDefinition dependent) {
+        if (!dependency.isSingleton()) {
+            boolean sameScope = dependent != null && dependency.getScope().equals(dependent.getScope());
+            if (dependency.getScope().equals(Scope.PROTOTYPE) || sameScope) {
+                return getScopedBean(dependency);
+            }
+            return createProxy(type, dependency);
+        }
+        Object value = dependency.getInstance();
+        if (value == null) {
+            value = type.isInterface() ? createProxy(type, dependency) : getOrCreate(dependency);
+        }
+        return value;
+    }
 
-            Constructor<?> defaultConstructor = clazz.getConstructor();
-            return defaultConstructor.newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create bean for: " + clazz.getName(), e);
+    private void injectFieldDependencies(Object instance, BeanDefinition definition) {
+        InjectionPlan plan = InjectionPlan.of(instance.getClass());
+        BeanRegistry registry = this.registry;
+        for (int i = 0; i < plan.getFieldCount(); i++) {
+            Class<?> fieldType = plan.getFieldType(i);
+            BeanDefinition dependency = registry.get(fieldType.getName());
+            if (dependency == null) {
+                log.severe("No bean found for dependency: " + fieldType.getName());
+                continue;
+            }
+            plan.inject(instance, i, resolveDependency(fieldType, dependency, definition));
         }
     }
 
-    public Object getBean(Class<?> clazz) {
-        Object bean = beans.get(clazz.getName());
-        if (bean == null) {
-            throw new RuntimeException("No bean found for type: " + clazz.getName());
+    //dependencies are created by the time this runs
+    private Object createBean(BeanDefinition definition) {
+        Object bean;
+        Method factoryMethod = definition.getFactoryMethod();
+        if (factoryMethod != null) {
+            Object component = definition.getDependencies().get(0).getInstance();
+            try {
+                bean = factoryMethod.invoke(component);
+            } catch (InvocationTargetException | IllegalAccessException e) {
+                log.severe("Cannot register bean from method " + factoryMethod.getName() + "." + factoryMethod.getDeclaringClass().getName());
+                throw new RuntimeException(e);
+            }
+        } else {
+            bean = instantiate(definition);
         }
+        injectFieldDependencies(bean, definition);
         return bean;
     }
 
+    private Object instantiate(BeanDefinition definition) {
+        InjectionPlan plan = InjectionPlan.of(definition.getType());
+        Class<?>[] paramTypes = plan.getParameterTypes();
+        Object[] params = new Object[paramTypes.length];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = resolveDependency(paramTypes[i], registry.get(paramTypes[i].getName()), definition);
+        }
+        return plan.newInstance(params); // Instantiate the bean with resolved dependencies
+    }
+
+    /**
+     * Looks the bean up by type, a superclass or an interface is enough if a single bean implements it.
+     *
+     * @return the bean, creating it first if it is lazy
+     */
+    public <T> T getBean(Class<T> clazz) {
+        BeanRegistry registry = this.registry;
+        BeanDefinition definition = registry.get(clazz);
+        Object bean;
+        if (definition != null) {
+            bean = getInstance(definition);
+        } else {
+            //the runtime class of a @Bean method result is only known once it was created
+            bean = registry.getBeans().get(clazz.getName());
+            if (bean == null) {
+                throw new RuntimeException("No bean found for type: " + clazz.getName());
+            }
+        }
+        return clazz.cast(bean);
+    }
+
+    /**
+     * @return every bean assignable to the type, lazy ones are created.
+     * Request and session scoped beans are only included while a request is in progress.
+     */
+    public <T> List<T> getBeansOfType(Class<T> clazz) {
+        List<T> result = new ArrayList<>();
+        boolean inRequest = RequestScope.current() != null;
+        for (BeanDefinition definition : registry.getAll(clazz)) {
+            if (inRequest || definition.isSingleton() || definition.getScope().equals(Scope.PROTOTYPE)) {
+                result.add(clazz.cast(getInstance(definition)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return false if a new or scope bound instance is returned for every lookup
+     */
+    public boolean isSingleton(Class<?> clazz) {
+        BeanDefinition definition = registry.get(clazz);
+        return definition == null || definition.isSingleton();
+    }
+
+    /**
+     * @return true if the bean, or a bean it injects directly or further down, is request or session scoped or is a
+     * {@link SessionService} writing to the current request's response. Such beans need a {@link RequestScope}.
+     */
+    public boolean needsRequestScope(Class<?> type) {
+        BeanRegistry registry = this.registry;
+        BeanDefinition definition = registry.get(type);
+        return definition != null && needsRequestScope(definition, registry, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private boolean needsRequestScope(BeanDefinition definition, BeanRegistry registry, Set<BeanDefinition> visited) {
+        if (!visited.add(definition)) {
+            return false;
+        }
+        if (definition.getScope().equals(Scope.REQUEST) || definition.getScope().equals(Scope.SESSION)) {
+            return true;
+        }
+        if (SessionService.class.isAssignableFrom(definition.getType()) && definition.isSingleton()
+                && ((SessionService) getInstance(definition)).usesRequestScope()) {
+            return true;
+        }
+        //the fields of a @Bean method result are only known once it was created
+        Object bean = definition.getInstance();
+        InjectionPlan plan = InjectionPlan.of(bean != null ? bean.getClass() : definition.getType());
+        List<Class<?>> types = new ArrayList<>();
+        if (definition.getFactoryMethod() == null) {
+            types.addAll(Arrays.asList(plan.getParameterTypes()));
+        }
+        for (int i = 0; i < plan.getFieldCount(); i++) {
+            types.add(plan.getFieldType(i));
+        }
+        for (Class<?> dependencyType : types) {
+            BeanDefinition dependency = registry.get(dependencyType.getName());
+            if (dependency != null && needsRequestScope(dependency, registry, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the beans whose class carries the annotation, lazy ones are created
+     */
+    public List<Object> getBeansWithAnnotation(Class<? extends Annotation> annotation) {
+        List<Object> result = new ArrayList<>();
+        for (BeanDefinition definition : registry.getDefinitions()) {
+            if (definition.getFactoryMethod() == null && definition.getType().isAnnotationPresent(annotation)) {
+                result.add(getInstance(definition));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers a bean created outside the container, its {@link Inject} fields are injected first.
+     * A bean already registered under the name is replaced.
+     */
+    public void registerBean(String name, Object bean) {
+        lock.lock();
+        try {
+            injectFieldDependencies(bean, null);
+            BeanDefinition definition = new BeanDefinition(name, bean.getClass(), null, false, Scope.SINGLETON);
+            definition.setInstance(bean);
+            registry = registry.withDefinition(definition, Map.of(name, bean));
+        } finally {
+            lock.unlock();
+        }
+        log.info("Registered bean " + name);
+    }
+
+    public void registerBean(Object bean) {
+        registerBean(bean.getClass().getName(), bean);
+    }
+
+    public void removeBean(String name) {
+        lock.lock();
+        try {
+            registry = registry.without(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return an immutable snapshot of the beans created so far, keyed by name
+     */
     public Map<String, Object> getBeans() {
-        return beans;
+        return registry.getBeans();
     }
 
-}
\ No newline at end of file
+    public boolean isLazyInitialization() {
+        return lazyInitialization;
+    }
+}
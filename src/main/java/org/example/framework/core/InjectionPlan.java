@@ -0,0 +1,122 @@
+package org.example.framework.core;
+
+import org.example.framework.core.annotations.Inject;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How instances of a class are created and injected, compiled into method handles once per class.
+ * Prototype and request scoped beans are created at a high rate, this keeps reflection out of that path.
+ */
+class InjectionPlan {
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<InjectionPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected InjectionPlan computeValue(Class<?> type) {
+            return new InjectionPlan(type);
+        }
+    };
+
+    private final Class<?> type;
+    //parameters of the @Inject constructor, empty when the public no-arg constructor is used
+    private final Class<?>[] parameterTypes;
+    //(Object[])Object, null if the class has neither constructor
+    private final MethodHandle constructor;
+    //@Inject fields
+    private final String[] fieldNames;
+    private final Class<?>[] fieldTypes;
+    private final MethodHandle[] setters;
+
+    private InjectionPlan(Class<?> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Constructor<?> injectConstructor = getInjectConstructor(type);
+        Class<?>[] parameterTypes = new Class<?>[0];
+        MethodHandle constructorHandle = null;
+        try {
+            Constructor<?> constructor = injectConstructor != null ? injectConstructor : type.getConstructor();
+            constructor.setAccessible(true);
+            parameterTypes = constructor.getParameterTypes();
+            constructorHandle = lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            //fine for @Bean results and beans registered from outside, they are never constructed here
+        }
+        this.parameterTypes = parameterTypes;
+        this.constructor = constructorHandle;
+
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Inject.class)) {
+                fields.add(field);
+            }
+        }
+        this.fieldNames = new String[fields.size()];
+        this.fieldTypes = new Class<?>[fields.size()];
+        this.setters = new MethodHandle[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            fieldNames[i] = field.getName();
+            fieldTypes[i] = field.getType();
+            try {
+                field.setAccessible(true);
+                setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new RuntimeException("Failed to inject dependency for field: " + field.getName() + " of " + type.getName(), e);
+            }
+        }
+    }
+
+    static InjectionPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    private static Constructor<?> getInjectConstructor(Class<?> clazz) {
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.isAnnotationPresent(Inject.class)) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    int getFieldCount() {
+        return setters.length;
+    }
+
+    Class<?> getFieldType(int index) {
+        return fieldTypes[index];
+    }
+
+    Object newInstance(Object[] args) {
+        if (constructor == null) {
+            throw new RuntimeException("Failed to create bean for: " + type.getName() + ", it has no @Inject or public no-arg constructor");
+        }
+        try {
+            return (Object) constructor.invokeExact(args);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create bean for: " + type.getName(), e);
+        }
+    }
+
+    void inject(Object instance, int index, Object value) {
+        try {
+            setters[index].invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to inject dependency for field: " + fieldNames[index], e);
+        }
+    }
+}
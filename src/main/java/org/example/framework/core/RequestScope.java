@@ -0,0 +1,105 @@
+package org.example.framework.core;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Request scoped beans of the request handled by the current thread.
+ * Opened and closed by the DispatcherServlet around every request.
+ */
+public class RequestScope {
+    private static final Logger log = Logger.getLogger(RequestScope.class.getName());
+    private static final ThreadLocal<RequestScope> current = new ThreadLocal<>();
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    //created on first use, most requests use no scoped beans
+    private Map<BeanDefinition, Object> beans;
+
+    private RequestScope(HttpServletRequest request, HttpServletResponse response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    public static RequestScope begin(HttpServletRequest request, HttpServletResponse response) {
+        RequestScope scope = new RequestScope(request, response);
+        current.set(scope);
+        return scope;
+    }
+
+    /**
+     * Makes this the scope of the calling thread, e.g. of the thread completing an asynchronous request.
+     *
+     * @return the scope it replaces, to be put back with {@link #restore}
+     */
+    public RequestScope attach() {
+        RequestScope previous = current.get();
+        current.set(this);
+        return previous;
+    }
+
+    public static void restore(RequestScope previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    /**
+     * Unbinds the scope from the calling thread without releasing its beans, the request continues on another thread.
+     */
+    public void detach() {
+        if (current.get() == this) {
+            current.remove();
+        }
+    }
+
+    /**
+     * @return the scope of the request handled by this thread, null outside a request
+     */
+    public static RequestScope current() {
+        return current.get();
+    }
+
+    public HttpServletRequest getRequest() {
+        return request;
+    }
+
+    public HttpServletResponse getResponse() {
+        return response;
+    }
+
+    Object get(BeanDefinition definition) {
+        return beans == null ? null : beans.get(definition);
+    }
+
+    void put(BeanDefinition definition, Object bean) {
+        if (beans == null) {
+            beans = new IdentityHashMap<>(4);
+        }
+        beans.put(definition, bean);
+    }
+
+    /**
+     * Releases the request's beans, resettable ones go back to their pool.
+     */
+    public void end() {
+        detach();
+        if (beans == null) {
+            return;
+        }
+        for (Map.Entry<BeanDefinition, Object> entry : beans.entrySet()) {
+            try {
+                entry.getKey().release(entry.getValue());
+            } catch (RuntimeException e) {
+                log.severe("Cannot reset request scoped bean " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        beans = null;
+    }
+}
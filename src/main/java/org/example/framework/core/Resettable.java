@@ -0,0 +1,9 @@
+package org.example.framework.core;
+
+/**
+ * A request scoped bean implementing this is reset when its request ends and handed to a later request,
+ * instead of a new instance being created every time.
+ */
+public interface Resettable {
+    void reset();
+}
@@ -0,0 +1,15 @@
+package org.example.framework.core.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Creates the bean on first use instead of at startup.
+ * Interface typed {@link Inject} fields of other beans receive a proxy until then.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Lazy {
+}
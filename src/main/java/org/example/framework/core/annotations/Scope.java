@@ -0,0 +1,24 @@
+package org.example.framework.core.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lifetime of a bean, singleton when absent.
+ * Request and session scoped beans are injected into longer lived beans through an interface typed proxy.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Scope {
+    String SINGLETON = "singleton";
+    //one instance per request, reused by later requests if it implements Resettable
+    String REQUEST = "request";
+    //one instance per session, stored through the SessionService
+    String SESSION = "session";
+    //a new instance every time it is injected or looked up
+    String PROTOTYPE = "prototype";
+
+    String value();
+}
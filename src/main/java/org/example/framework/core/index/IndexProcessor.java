@@ -0,0 +1,96 @@
+package org.example.framework.core.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes {@value #INDEX_LOCATION} at compile time, listing every class and method carrying a framework annotation,
+ * so startup can read one resource instead of walking the classpath.
+ * <p>
+ * Format, one entry per line:
+ * <pre>
+ * annotation &lt;annotation&gt;                  an annotation type covered by this index
+ * type &lt;annotation&gt; &lt;class&gt;               a class carrying the annotation
+ * method &lt;annotation&gt; &lt;class&gt;#&lt;method&gt;    a method carrying the annotation
+ * </pre>
+ */
+@SupportedAnnotationTypes({
+        IndexProcessor.COMPONENT,
+        IndexProcessor.SERVICE,
+        IndexProcessor.CONTROLLER,
+        IndexProcessor.CONFIGURATION,
+        IndexProcessor.BEAN,
+        IndexProcessor.ON_INIT,
+        IndexProcessor.ON_DESTROY,
+        IndexProcessor.REQUEST_MAPPING
+})
+public class IndexProcessor extends AbstractProcessor {
+    public static final String INDEX_LOCATION = "META-INF/myspring/index";
+
+    static final String COMPONENT = "org.example.framework.core.annotations.Component";
+    static final String SERVICE = "org.example.framework.core.annotations.Service";
+    static final String CONTROLLER = "org.example.framework.web.annotations.Controller";
+    static final String CONFIGURATION = "org.example.framework.core.annotations.Configuration";
+    static final String BEAN = "org.example.framework.core.annotations.Bean";
+    static final String ON_INIT = "org.example.framework.core.annotations.OnInit";
+    static final String ON_DESTROY = "org.example.framework.core.annotations.OnDestroy";
+    static final String REQUEST_MAPPING = "org.example.framework.web.annotations.RequestMapping";
+
+    //sorted so the generated file is stable between builds
+    private final Set<String> entries = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind().isClass() || element.getKind().isInterface()) {
+                    entries.add("type " + annotationName + " " + binaryName(element));
+                } else if (element.getKind() == ElementKind.METHOD) {
+                    entries.add("method " + annotationName + " " + binaryName(element.getEnclosingElement()) + "#" + element.getSimpleName());
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private String binaryName(Element type) {
+        return processingEnv.getElementUtils().getBinaryName((TypeElement) type).toString();
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = index.openWriter()) {
+                for (String annotation : new TreeSet<>(getSupportedAnnotationTypes())) {
+                    writer.write("annotation " + annotation + "\n");
+                }
+                for (String entry : entries) {
+                    writer.write(entry + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + INDEX_LOCATION + ": " + e.getMessage());
+        }
+    }
+}
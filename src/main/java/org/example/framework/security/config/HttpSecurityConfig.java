@@ -8,6 +8,9 @@ import org.example.framework.security.session.SessionService;
 @Component
 public class HttpSecurityConfig {
     private int sessionTimeout;
+    //signs the tokens of TokenSessionService, must be the same on every node
+    private byte[] tokenSecret;
+    private String tokenCookieName = "MYSPRING_TOKEN";
 
     public HttpSecurityConfig() {
         this.sessionTimeout = 60 * 60 * 24 * 7;//1 week
@@ -22,14 +25,36 @@ public class HttpSecurityConfig {
         return this;
     }
 
+    /**
+     * @param tokenSecret HMAC-SHA256 key of the session tokens, at least 32 bytes
+     */
+    public HttpSecurityConfig setTokenSecret(byte[] tokenSecret) {
+        this.tokenSecret = tokenSecret.clone();
+        return this;
+    }
+
+    public HttpSecurityConfig setTokenCookieName(String tokenCookieName) {
+        this.tokenCookieName = tokenCookieName;
+        return this;
+    }
+
     public int getSessionTimeout() {
         return sessionTimeout;
     }
 
+    public byte[] getTokenSecret() {
+        return tokenSecret == null ? null : tokenSecret.clone();
+    }
+
+    public String getTokenCookieName() {
+        return tokenCookieName;
+    }
+
     @Override
     public String toString() {
         return "HttpSecurityConfig{" +
                 ", sessionTimeout=" + sessionTimeout +
+                ", tokenCookieName='" + tokenCookieName + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -38,4 +38,15 @@ public class HttpSessionService implements SessionService{
             session.invalidate();
         }
     }
+
+    @Override
+    public Object getAttribute(HttpServletRequest request, String name) {
+        HttpSession session = request.getSession(false);
+        return session == null ? null : session.getAttribute(name);
+    }
+
+    @Override
+    public void setAttribute(HttpServletRequest request, String name, Object value) {
+        request.getSession(true).setAttribute(name, value);
+    }
 }
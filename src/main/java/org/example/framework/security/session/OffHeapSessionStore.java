@@ -0,0 +1,247 @@
+package org.example.framework.security.session;
+
+import org.example.framework.security.config.HttpSecurityConfig;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Keeps session data in a direct buffer outside the heap, so idle sessions do not pile up in the old generation.
+ * The buffer is split into fixed size blocks, a session takes a chain of them.
+ * <p>
+ * Expired sessions are removed by a timing wheel: one bucket per tick, a session sits in the bucket of its deadline.
+ * Accessing a session only moves its deadline, the sweep puts sessions that are still alive into their new bucket.
+ */
+public class OffHeapSessionStore implements SessionStore, AutoCloseable {
+    private static final Logger log = Logger.getLogger(OffHeapSessionStore.class.getName());
+    public static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+    static final int BLOCK_SIZE = 256;
+    static final int WHEEL_SIZE = 512;
+    //the eviction rate is averaged over about a minute
+    private static final double RATE_WINDOW_MILLIS = 60_000;
+
+    private static final class Entry {
+        private final String id;
+        private int firstBlock = -1;
+        private int blocks;
+        private int length;
+        private long expiresAt;
+        private int bucket = -1;
+
+        private Entry(String id) {
+            this.id = id;
+        }
+    }
+
+    private final ByteBuffer slab;
+    //next block of a chain, -1 ends it
+    private final int[] next;
+    //stack of free blocks
+    private final int[] free;
+    private int freeCount;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Set<Entry>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final long timeoutMillis;
+    private final long tickMillis;
+    private long lastTick;
+    private long evictions;
+    private double evictionsPerSecond;
+    //guards everything above, sessions are small so copies under the lock are short
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService expirer;
+    private final LongSupplier clock;
+
+    public OffHeapSessionStore(HttpSecurityConfig httpSecurityConfig) {
+        this(DEFAULT_CAPACITY, httpSecurityConfig.getSessionTimeout() * 1000L);
+    }
+
+    /**
+     * @param capacity      bytes allocated outside the heap, rounded down to whole blocks
+     * @param timeoutMillis how long a session lives after it was last accessed
+     */
+    public OffHeapSessionStore(int capacity, long timeoutMillis) {
+        this(capacity, timeoutMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds, e.g. a fake one in tests driving {@link #expire} themselves
+     */
+    public OffHeapSessionStore(int capacity, long timeoutMillis, LongSupplier clock) {
+        this.clock = clock;
+        int blockCount = capacity / BLOCK_SIZE;
+        if (blockCount == 0) {
+            throw new RuntimeException("Session store capacity must be at least " + BLOCK_SIZE + " bytes");
+        }
+        this.slab = ByteBuffer.allocateDirect(blockCount * BLOCK_SIZE);
+        this.next = new int[blockCount];
+        this.free = new int[blockCount];
+        //lowest blocks are handed out first
+        for (int i = 0; i < blockCount; i++) {
+            free[i] = blockCount - 1 - i;
+        }
+        this.freeCount = blockCount;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new HashSet<>());
+        }
+        this.timeoutMillis = timeoutMillis;
+        //one revolution covers the timeout, a deadline is never more than one revolution ahead
+        this.tickMillis = Math.max(1000, (timeoutMillis + WHEEL_SIZE - 2) / (WHEEL_SIZE - 1));
+        this.lastTick = clock.getAsLong() / tickMillis;
+        this.expirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expirer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expirer.scheduleAtFixedRate(this::expire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public byte[] load(String sessionId) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(sessionId);
+            long now = clock.getAsLong();
+            if (entry == null || entry.expiresAt <= now) {
+                return null;
+            }
+            entry.expiresAt = now + timeoutMillis;
+            byte[] data = new byte[entry.length];
+            int block = entry.firstBlock;
+            for (int offset = 0; offset < data.length; offset += BLOCK_SIZE) {
+                slab.get(block * BLOCK_SIZE, data, offset, Math.min(BLOCK_SIZE, data.length - offset));
+                block = next[block];
+            }
+            return data;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(String sessionId, byte[] data) {
+        int blocks = Math.max(1, (data.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        lock.lock();
+        try {
+            Entry entry = entries.get(sessionId);
+            int reusable = entry == null ? 0 : entry.blocks;
+            if (freeCount + reusable < blocks) {
+                throw new RuntimeException("Session store is full, " + data.length + " bytes do not fit into " + (long) freeCount * BLOCK_SIZE + " free bytes");
+            }
+            if (entry == null) {
+                entry = new Entry(sessionId);
+                entries.put(sessionId, entry);
+            } else {
+                release(entry);
+            }
+            entry.firstBlock = -1;
+            int previous = -1;
+            for (int offset = 0, i = 0; i < blocks; i++, offset += BLOCK_SIZE) {
+                int block = free[--freeCount];
+                next[block] = -1;
+                if (previous == -1) {
+                    entry.firstBlock = block;
+                } else {
+                    next[previous] = block;
+                }
+                slab.put(block * BLOCK_SIZE, data, offset, Math.max(0, Math.min(BLOCK_SIZE, data.length - offset)));
+                previous = block;
+            }
+            entry.blocks = blocks;
+            entry.length = data.length;
+            entry.expiresAt = clock.getAsLong() + timeoutMillis;
+            if (entry.bucket == -1) {
+                schedule(entry, lastTick + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(sessionId);
+            if (entry != null) {
+                wheel.get(entry.bucket).remove(entry);
+                release(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public SessionStoreMetrics getMetrics() {
+        lock.lock();
+        try {
+            return new SessionStoreMetrics(entries.size(), (long) (next.length - freeCount) * BLOCK_SIZE, (long) next.length * BLOCK_SIZE,
+                    evictions, evictionsPerSecond);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        expirer.shutdownNow();
+    }
+
+    /**
+     * Removes expired sessions, runs on the store's own thread once per tick and catches up on ticks it missed.
+     */
+    public void expire() {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            long currentTick = now / tickMillis;
+            int evicted = 0;
+            for (long tick = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1); tick <= currentTick; tick++) {
+                Set<Entry> bucket = wheel.get((int) (tick % WHEEL_SIZE));
+                List<Entry> due = new ArrayList<>(bucket);
+                bucket.clear();
+                for (Entry entry : due) {
+                    entry.bucket = -1;
+                    if (entry.expiresAt <= now) {
+                        entries.remove(entry.id);
+                        release(entry);
+                        evicted++;
+                    } else {
+                        //accessed since it was scheduled
+                        schedule(entry, currentTick + 1);
+                    }
+                }
+            }
+            long elapsed = Math.max(1, currentTick - lastTick) * tickMillis;
+            double alpha = 1 - Math.exp(-elapsed / RATE_WINDOW_MILLIS);
+            evictionsPerSecond += alpha * (evicted * 1000.0 / elapsed - evictionsPerSecond);
+            evictions += evicted;
+            lastTick = currentTick;
+        } catch (RuntimeException e) {
+            //an exception would cancel the schedule
+            log.severe("Cannot expire sessions: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //buckets up to the earliest tick are swept already
+    private void schedule(Entry entry, long earliestTick) {
+        entry.bucket = (int) (Math.max(entry.expiresAt / tickMillis, earliestTick) % WHEEL_SIZE);
+        wheel.get(entry.bucket).add(entry);
+    }
+
+    private void release(Entry entry) {
+        for (int block = entry.firstBlock; block != -1; block = next[block]) {
+            free[freeCount++] = block;
+        }
+        entry.firstBlock = -1;
+        entry.blocks = 0;
+    }
+}
@@ -10,4 +10,27 @@ public interface SessionService {
     void createSession(HttpServletRequest request, UserDetails userDetails);
     UserDetails getUserDetailsFromSession(HttpServletRequest request);
     void invalidateSession(HttpServletRequest request);
+
+    /**
+     * @return the attribute of the request's session, null without a session
+     */
+    Object getAttribute(HttpServletRequest request, String name);
+
+    //creates the session if there is none
+    void setAttribute(HttpServletRequest request, String name, Object value);
+
+    /**
+     * @return false if session scoped beans of the type cannot be kept, checked at startup.
+     * A bean is stored once when it is created, the service has to see later changes to it as well.
+     */
+    default boolean supportsSessionScopedBean(Class<?> type) {
+        return true;
+    }
+
+    /**
+     * @return true if it writes to the response of the current {@link org.example.framework.core.RequestScope}, e.g. to set a cookie
+     */
+    default boolean usesRequestScope() {
+        return false;
+    }
 }
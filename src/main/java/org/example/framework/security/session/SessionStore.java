@@ -0,0 +1,19 @@
+package org.example.framework.security.session;
+
+/**
+ * Keeps the serialized attributes of server side sessions, used by {@link StoreSessionService}.
+ * Sessions expire once they were not accessed for the session timeout.
+ */
+public interface SessionStore {
+    /**
+     * @return the session's data, null if there is no such session or it expired. Extends the session's lifetime.
+     */
+    byte[] load(String sessionId);
+
+    //replaces the data of the session, creating it if needed
+    void save(String sessionId, byte[] data);
+
+    void remove(String sessionId);
+
+    SessionStoreMetrics getMetrics();
+}
@@ -0,0 +1,11 @@
+package org.example.framework.security.session;
+
+/**
+ * @param liveSessions       sessions currently stored
+ * @param bytesUsed          bytes taken by stored sessions, including the unused tail of their last block
+ * @param capacity           bytes the store can hold
+ * @param evictions          sessions removed because they expired, since the store was created
+ * @param evictionsPerSecond moving average of the eviction rate
+ */
+public record SessionStoreMetrics(long liveSessions, long bytesUsed, long capacity, long evictions, double evictionsPerSecond) {
+}
@@ -0,0 +1,177 @@
+package org.example.framework.security.session;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.framework.core.RequestScope;
+import org.example.framework.security.config.HttpSecurityConfig;
+import org.example.framework.security.user.UserDetails;
+
+import java.io.*;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.logging.Logger;
+
+/**
+ * Server side sessions kept in a {@link SessionStore} instead of Tomcat's session manager, e.g.
+ * {@code new StoreSessionService(new OffHeapSessionStore(httpSecurityConfig), httpSecurityConfig)} returned by a
+ * {@code @Bean} method as the {@link SessionService}.
+ * <p>
+ * Attributes are serialized, a request works on its own copy and every change is written back.
+ * Session scoped beans need {@link HttpSessionService}: only changes made through {@link #setAttribute} are saved,
+ * not those made to a bean afterwards. The container rejects them at startup.
+ */
+public class StoreSessionService implements SessionService {
+    private static final Logger log = Logger.getLogger(StoreSessionService.class.getName());
+    public static final String COOKIE_NAME = "MYSPRING_SESSION";
+    private static final String USER_ATTRIBUTE = "user";
+    //the session loaded by the request, deserialized once per request
+    private static final String REQUEST_ATTRIBUTE = "myspring.session";
+
+    private record LoadedSession(String id, HashMap<String, Object> attributes) {
+    }
+
+    private final SessionStore sessionStore;
+    private final HttpSecurityConfig httpSecurityConfig;
+    private final SecureRandom random = new SecureRandom();
+
+    public StoreSessionService(SessionStore sessionStore, HttpSecurityConfig httpSecurityConfig) {
+        this.sessionStore = sessionStore;
+        this.httpSecurityConfig = httpSecurityConfig;
+    }
+
+    @Override
+    public void createSession(HttpServletRequest request, UserDetails userDetails) {
+        //a new id on login, a session id known before the login must not become authenticated
+        LoadedSession previous = getSession(request, false);
+        HashMap<String, Object> attributes = new HashMap<>();
+        if (previous != null) {
+            sessionStore.remove(previous.id());
+            attributes.putAll(previous.attributes());
+        }
+        attributes.put(USER_ATTRIBUTE, userDetails);
+        LoadedSession session = new LoadedSession(newId(), attributes);
+        save(session);
+        request.setAttribute(REQUEST_ATTRIBUTE, session);
+        setCookie(request, session.id(), httpSecurityConfig.getSessionTimeout());
+    }
+
+    @Override
+    public UserDetails getUserDetailsFromSession(HttpServletRequest request) {
+        return (UserDetails) getAttribute(request, USER_ATTRIBUTE);
+    }
+
+    @Override
+    public void invalidateSession(HttpServletRequest request) {
+        LoadedSession session = getSession(request, false);
+        if (session != null) {
+            sessionStore.remove(session.id());
+            request.removeAttribute(REQUEST_ATTRIBUTE);
+            setCookie(request, "", 0);
+        }
+    }
+
+    @Override
+    public Object getAttribute(HttpServletRequest request, String name) {
+        LoadedSession session = getSession(request, false);
+        return session == null ? null : session.attributes().get(name);
+    }
+
+    @Override
+    public void setAttribute(HttpServletRequest request, String name, Object value) {
+        if (value != null && !(value instanceof Serializable)) {
+            throw new RuntimeException("Session attribute " + name + " of type " + value.getClass().getName() + " is not Serializable");
+        }
+        LoadedSession session = getSession(request, true);
+        session.attributes().put(name, value);
+        save(session);
+    }
+
+    //the stored copy is written when the bean is created, later changes to the bean would be lost
+    @Override
+    public boolean supportsSessionScopedBean(Class<?> type) {
+        return false;
+    }
+
+    //the cookie is set on the current request's response
+    @Override
+    public boolean usesRequestScope() {
+        return true;
+    }
+
+    public SessionStoreMetrics getMetrics() {
+        return sessionStore.getMetrics();
+    }
+
+    private LoadedSession getSession(HttpServletRequest request, boolean create) {
+        LoadedSession session = (LoadedSession) request.getAttribute(REQUEST_ATTRIBUTE);
+        if (session != null) {
+            return session;
+        }
+        String id = getSessionId(request);
+        byte[] data = id == null ? null : sessionStore.load(id);
+        if (data != null) {
+            session = new LoadedSession(id, deserialize(data));
+        } else if (create) {
+            session = new LoadedSession(newId(), new HashMap<>());
+            setCookie(request, session.id(), httpSecurityConfig.getSessionTimeout());
+        } else {
+            return null;
+        }
+        request.setAttribute(REQUEST_ATTRIBUTE, session);
+        return session;
+    }
+
+    private static String getSessionId(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookie.getName().equals(COOKIE_NAME) && !cookie.getValue().isEmpty()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private String newId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void save(LoadedSession session) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(session.attributes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize session attributes", e);
+        }
+        sessionStore.save(session.id(), bytes.toByteArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HashMap<String, Object> deserialize(byte[] data) {
+        //only data written by save, never bytes from the client
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (HashMap<String, Object>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Cannot deserialize session attributes", e);
+        }
+    }
+
+    private static void setCookie(HttpServletRequest request, String value, int maxAge) {
+        RequestScope scope = RequestScope.current();
+        if (scope == null || scope.getResponse() == null) {
+            log.warning("No response to set the session cookie on");
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE_NAME, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setMaxAge(maxAge);
+        cookie.setAttribute("SameSite", "Lax");
+        scope.getResponse().addCookie(cookie);
+    }
+}
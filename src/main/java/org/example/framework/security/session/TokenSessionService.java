@@ -0,0 +1,217 @@
+package org.example.framework.security.session;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.framework.core.RequestScope;
+import org.example.framework.security.config.HttpSecurityConfig;
+import org.example.framework.security.user.Authority;
+import org.example.framework.security.user.UserDetails;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Stateless alternative to {@link HttpSessionService}: the user is kept in an HMAC-SHA256 signed token sent as a cookie
+ * or as an {@code Authorization: Bearer} header, so any node sharing the secret can serve any request and no memory
+ * is held per logged in user.
+ * <p>
+ * Selected with a {@code @Bean} method returning it as the {@link SessionService}.
+ * Tokens cannot be revoked before they expire, invalidating only removes the cookie.
+ */
+public class TokenSessionService implements SessionService {
+    private static final Logger log = Logger.getLogger(TokenSessionService.class.getName());
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    //validated tokens, direct mapped by hash so a lookup neither locks nor allocates
+    private static final int CACHE_SIZE = 1024;
+
+    private record ValidatedToken(String token, UserDetails user, long expiresAt) {
+    }
+
+    private final HttpSecurityConfig httpSecurityConfig;
+    //Mac is not thread safe, every use works on a clone
+    private final Mac mac;
+    private final AtomicReferenceArray<ValidatedToken> cache = new AtomicReferenceArray<>(CACHE_SIZE);
+
+    public TokenSessionService(HttpSecurityConfig httpSecurityConfig) {
+        this.httpSecurityConfig = httpSecurityConfig;
+        byte[] secret = httpSecurityConfig.getTokenSecret();
+        if (secret == null || secret.length < 32) {
+            throw new RuntimeException("TokenSessionService needs a token secret of at least 32 bytes in HttpSecurityConfig");
+        }
+        try {
+            mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Sets the token cookie on the current response, clients using the header get the token from {@link #createToken}.
+     */
+    @Override
+    public void createSession(HttpServletRequest request, UserDetails userDetails) {
+        String token = createToken(userDetails);
+        RequestScope scope = RequestScope.current();
+        if (scope == null || scope.getResponse() == null) {
+            log.warning("No response to set the token cookie on, the session is not created");
+            return;
+        }
+        scope.getResponse().addCookie(createCookie(request, token, httpSecurityConfig.getSessionTimeout()));
+    }
+
+    /**
+     * @return a signed token of the user's name and authorities, valid for the session timeout
+     */
+    public String createToken(UserDetails userDetails) {
+        long expiresAt = System.currentTimeMillis() / 1000 + httpSecurityConfig.getSessionTimeout();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(expiresAt);
+            out.writeUTF(userDetails.getName());
+            //names, not ids: ids are assigned per process and differ between nodes
+            out.writeShort(userDetails.getAuthorities().size());
+            for (Authority authority : userDetails.getAuthorities()) {
+                out.writeUTF(authority.getName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(payload));
+    }
+
+    @Override
+    public UserDetails getUserDetailsFromSession(HttpServletRequest request) {
+        String token = getToken(request);
+        if (token == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        int index = token.hashCode() & (CACHE_SIZE - 1);
+        ValidatedToken cached = cache.get(index);
+        if (cached != null && cached.token().equals(token)) {
+            return cached.expiresAt() > now ? cached.user() : null;
+        }
+        ValidatedToken validated = validate(token);
+        if (validated == null || validated.expiresAt() <= now) {
+            return null;
+        }
+        cache.set(index, validated);
+        return validated.user();
+    }
+
+    @Override
+    public void invalidateSession(HttpServletRequest request) {
+        String token = getToken(request);
+        if (token != null) {
+            int index = token.hashCode() & (CACHE_SIZE - 1);
+            ValidatedToken cached = cache.get(index);
+            if (cached != null && cached.token().equals(token)) {
+                cache.compareAndSet(index, cached, null);
+            }
+        }
+        RequestScope scope = RequestScope.current();
+        if (scope != null && scope.getResponse() != null) {
+            scope.getResponse().addCookie(createCookie(request, "", 0));
+        }
+    }
+
+    //there is no server side state to keep attributes in
+    @Override
+    public Object getAttribute(HttpServletRequest request, String name) {
+        return null;
+    }
+
+    @Override
+    public void setAttribute(HttpServletRequest request, String name, Object value) {
+        throw new UnsupportedOperationException("TokenSessionService is stateless, session attributes and session scoped beans need HttpSessionService");
+    }
+
+    @Override
+    public boolean supportsSessionScopedBean(Class<?> type) {
+        return false;
+    }
+
+    //the cookie is set on the current request's response
+    @Override
+    public boolean usesRequestScope() {
+        return true;
+    }
+
+    private String getToken(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            return authorization.substring("Bearer ".length()).trim();
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookie.getName().equals(httpSecurityConfig.getTokenCookieName()) && !cookie.getValue().isEmpty()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the token's content, null if it is malformed or its signature does not match
+     */
+    private ValidatedToken validate(String token) {
+        int dot = token.indexOf('.');
+        if (dot == -1) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            //constant time, the comparison must not reveal how much of a forged signature is right
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return null;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(payload)));
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            long expiresAt = in.readLong();
+            UserDetails user = new UserDetails();
+            user.setName(in.readUTF());
+            int authorities = in.readUnsignedShort();
+            for (int i = 0; i < authorities; i++) {
+                user.getAuthorities().add(Authority.intern(in.readUTF()));
+            }
+            return new ValidatedToken(token, user, expiresAt);
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = (Mac) this.mac.clone();
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Cookie createCookie(HttpServletRequest request, String token, int maxAge) {
+        Cookie cookie = new Cookie(httpSecurityConfig.getTokenCookieName(), token);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setMaxAge(maxAge);
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
+}
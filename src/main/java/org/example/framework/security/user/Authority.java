@@ -1,18 +1,67 @@
 package org.example.framework.security.user;
 
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class Authority implements Serializable {
+    //every distinct name gets a small id, the bit it occupies in an AuthoritySet
+    private static final Map<String, Authority> INTERNED = new ConcurrentHashMap<>();
+    private static final List<Authority> BY_ID = new CopyOnWriteArrayList<>();
 
-public class Authority {
     private String name;
+    //not serialized, ids are only valid in the process that assigned them
+    private final transient int id;
 
     public Authority(String name) {
         this.name = name;
+        this.id = intern(name).id;
+    }
+
+    private Authority(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    /**
+     * @return the shared instance for the name, registering it on first use
+     */
+    public static Authority intern(String name) {
+        Authority authority = INTERNED.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        //ids must stay dense, assigning them is serialized
+        synchronized (BY_ID) {
+            return INTERNED.computeIfAbsent(name, n -> {
+                Authority interned = new Authority(n, BY_ID.size());
+                BY_ID.add(interned);
+                return interned;
+            });
+        }
+    }
+
+    @Serial
+    private Object readResolve() {
+        return intern(name);
+    }
+
+    static Authority forId(int id) {
+        return BY_ID.get(id);
     }
 
     public String getName() {
         return name;
     }
 
+    public int getId() {
+        return id;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
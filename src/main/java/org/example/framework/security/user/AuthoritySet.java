@@ -0,0 +1,163 @@
+package org.example.framework.security.user;
+
+import java.io.*;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of authorities stored as a bitset over their interned ids, so checking a user against an endpoint is a
+ * bitwise AND per 64 authorities, without hashing or allocating.
+ * Not thread safe, it is filled once when a user logs in or an endpoint is mapped and only read afterwards.
+ */
+public class AuthoritySet extends AbstractSet<Authority> implements Serializable {
+    //serialized as names, the ids of another process differ
+    private transient long[] words = new long[1];
+
+    /**
+     * @return true if at least one authority is in both sets
+     */
+    public boolean intersects(AuthoritySet other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the bits of the set, equal sets give equal arrays up to trailing zeros
+     */
+    public long[] toLongArray() {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(words, length);
+    }
+
+    @Override
+    public boolean add(Authority authority) {
+        int id = authority.getId();
+        int index = id >>> 6;
+        if (index >= words.length) {
+            words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+        }
+        long bit = 1L << id;
+        boolean added = (words[index] & bit) == 0;
+        words[index] |= bit;
+        return added;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Authority authority) || !contains(authority)) {
+            return false;
+        }
+        words[authority.getId() >>> 6] &= ~(1L << authority.getId());
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Authority authority)) {
+            return false;
+        }
+        int index = authority.getId() >>> 6;
+        return index < words.length && (words[index] & (1L << authority.getId())) != 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    @Override
+    public Iterator<Authority> iterator() {
+        return new Iterator<>() {
+            private int next = nextId(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public Authority next() {
+                if (next == -1) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = nextId(next + 1);
+                return Authority.forId(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last == -1) {
+                    throw new IllegalStateException();
+                }
+                words[last >>> 6] &= ~(1L << last);
+                last = -1;
+            }
+        };
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(size());
+        for (Authority authority : this) {
+            out.writeUTF(authority.getName());
+        }
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException {
+        words = new long[1];
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            add(Authority.intern(in.readUTF()));
+        }
+    }
+
+    //first set bit at or after from, -1 if there is none
+    private int nextId(int from) {
+        int index = from >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return index * 64 + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package org.example.framework.security.user;
 
-import java.util.*;
+import java.io.Serializable;
 import java.util.stream.Collectors;
 
-public class UserDetails {
+public class UserDetails implements Serializable {
     private String name;
-    private Set<Authority> authorities;
+    private AuthoritySet authorities;
 
     public UserDetails() {
-        this.authorities = new HashSet<>();
+        this.authorities = new AuthoritySet();
     }
 
     public String getName() {
@@ -19,7 +19,7 @@ public class UserDetails {
         this.name = name;
     }
 
-    public Set<Authority> getAuthorities() {
+    public AuthoritySet getAuthorities() {
         return authorities;
     }
 
@@ -0,0 +1,278 @@
+package org.example.framework.util;
+
+/**
+ * Single pass, cursor based reader over a json document.
+ * Values are read straight from the underlying {@link CharSequence}, only scalar values are copied out.
+ */
+public class JSONReader {
+    private final CharSequence json;
+    private int pos;
+    private int tokenStart;
+
+    public JSONReader(CharSequence json) {
+        this.json = json;
+        this.pos = 0;
+    }
+
+    /**
+     * @return the next non whitespace character without consuming it
+     */
+    public char peek() {
+        skipWhiteSpace();
+        if (pos >= json.length()) {
+            throw error("Unexpected end of json");
+        }
+        return json.charAt(pos);
+    }
+
+    public void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "' but found '" + json.charAt(pos) + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Consumes the closing character of an object or array if it is next.
+     */
+    public boolean consumeIf(char c) {
+        if (peek() == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves past the separator between two entries of an object or array.
+     *
+     * @return true if another entry follows, false if the closing character was consumed
+     */
+    public boolean nextEntry(char closing) {
+        char c = peek();
+        pos++;
+        if (c == ',') {
+            return true;
+        }
+        if (c == closing) {
+            return false;
+        }
+        throw error("Expected ',' or '" + closing + "' but found '" + c + "'");
+    }
+
+    public String nextName() {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    public String nextString() {
+        expect('"');
+        int start = pos;
+        int length = json.length();
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                return json.subSequence(start, pos++).toString();
+            }
+            if (c == '\\') {
+                return nextEscapedString(start);
+            }
+            pos++;
+        }
+        throw error("Unterminated string");
+    }
+
+    /**
+     * Reads a string, number, boolean or null as its textual value.
+     *
+     * @return the unquoted value, or null for a json null
+     */
+    public String nextScalar() {
+        char c = peek();
+        if (c == '"') {
+            return nextString();
+        }
+        if (c == '{' || c == '[') {
+            throw error("Expected a value but found '" + c + "'");
+        }
+        int start = pos;
+        while (pos < json.length() && !isDelimiter(json.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Expected a value but found '" + c + "'");
+        }
+        if (pos - start == 4 && regionMatches(start, "null")) {
+            return null;
+        }
+        return json.subSequence(start, pos).toString();
+    }
+
+    /**
+     * Consumes a json null if it is next.
+     */
+    public boolean consumeNull() {
+        peek();
+        int end = pos + 4;
+        if (regionMatches(pos, "null") && (end == json.length() || isDelimiter(json.charAt(end)))) {
+            pos = end;
+            return true;
+        }
+        return false;
+    }
+
+    //primitives are parsed in place, quoted numbers like "30" are accepted as well
+
+    public int nextInt() {
+        int end = nextToken();
+        return Integer.parseInt(json, tokenStart, end, 10);
+    }
+
+    public long nextLong() {
+        int end = nextToken();
+        return Long.parseLong(json, tokenStart, end, 10);
+    }
+
+    public double nextDouble() {
+        int end = nextToken();
+        return Double.parseDouble(json.subSequence(tokenStart, end).toString());
+    }
+
+    public boolean nextBoolean() {
+        int end = nextToken();
+        return end - tokenStart == 4 && regionMatchesIgnoreCase(tokenStart, "true");
+    }
+
+    public void skipValue() {
+        char c = peek();
+        if (c == '{' || c == '[') {
+            char closing = c == '{' ? '}' : ']';
+            pos++;
+            if (consumeIf(closing)) {
+                return;
+            }
+            do {
+                if (c == '{') {
+                    nextName();
+                }
+                skipValue();
+            } while (nextEntry(closing));
+        } else {
+            nextScalar();
+        }
+    }
+
+    /**
+     * Fails if anything but whitespace is left after the document.
+     */
+    public void endDocument() {
+        skipWhiteSpace();
+        if (pos < json.length()) {
+            throw error("Unexpected trailing content");
+        }
+    }
+
+    /**
+     * Moves past an unescaped, possibly quoted scalar.
+     *
+     * @return the end of its value, the start is left in tokenStart
+     */
+    private int nextToken() {
+        char c = peek();
+        int length = json.length();
+        if (c == '"') {
+            tokenStart = ++pos;
+            while (pos < length && json.charAt(pos) != '"') {
+                if (json.charAt(pos) == '\\') {
+                    throw error("Unexpected escape in primitive value");
+                }
+                pos++;
+            }
+            if (pos >= length) {
+                throw error("Unterminated string");
+            }
+            return pos++;
+        }
+        tokenStart = pos;
+        while (pos < length && !isDelimiter(json.charAt(pos))) {
+            pos++;
+        }
+        if (tokenStart == pos) {
+            throw error("Expected a value but found '" + c + "'");
+        }
+        return pos;
+    }
+
+    private String nextEscapedString(int start) {
+        StringBuilder sb = new StringBuilder(pos - start + 16);
+        sb.append(json, start, pos);
+        int length = json.length();
+        while (pos < length) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= length) {
+                break;
+            }
+            char escaped = json.charAt(pos++);
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > length) {
+                        throw error("Invalid unicode escape");
+                    }
+                    sb.append((char) Integer.parseInt(json, pos, pos + 4, 16));
+                    pos += 4;
+                }
+                default -> throw error("Invalid escape character '" + escaped + "'");
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipWhiteSpace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private boolean isDelimiter(char c) {
+        return c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c);
+    }
+
+    private boolean regionMatches(int start, String literal) {
+        if (start + literal.length() > json.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (json.charAt(start + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionMatchesIgnoreCase(int start, String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (Character.toLowerCase(json.charAt(start + i)) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RuntimeException error(String message) {
+        return new RuntimeException("Invalid json: " + message + " at position " + pos);
+    }
+}
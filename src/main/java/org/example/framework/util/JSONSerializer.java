@@ -2,10 +2,12 @@ package org.example.framework.util;
 
 import org.example.framework.core.annotations.Component;
 import org.example.framework.core.annotations.Inject;
+import org.example.framework.util.type.Converter;
 import org.example.framework.util.type.TypeConverterRegistry;
-import org.example.framework.web.annotations.JsonValue;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.lang.reflect.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -28,198 +30,279 @@ public class JSONSerializer implements Serializator {
             log.severe("Class " + obj.getClass().getName() + " is not market Serializable");
             return null;
         }
-
-        if (isIterableOrArray(obj)) {
-            return serializeJsonArray(obj);
+        StringBuilder json = new StringBuilder();
+        try {
+            writeSerializable(obj, json);
+        } catch (IOException e) {
+            //cannot happen when appending to a StringBuilder
+            throw new UncheckedIOException(e);
         }
-        return serializeJsonObject(obj);
+        return json.toString();
     }
 
+    /**
+     * Writes the json straight into {@code out}, e.g. a response writer, without building the document in memory.
+     */
     @Override
-    public <T> T deserialize(String json, Class<T> classOfT) {
-        if (!isJsonObj(json)) {
-            throw new RuntimeException("Invalid json: " + json);
-        }
-        try {
-            if (Collection.class.isAssignableFrom(classOfT)) {
-                throw new RuntimeException("Cannot map directly to collection, wrap collection in type token");
-            }
-            return deserializeJsonObject(json, classOfT);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException |
-                 NoSuchMethodException e) {
-            log.severe("constructor not found for class " + classOfT.getName());
-            throw new RuntimeException(e);
+    public void serialize(Object obj, Appendable out) throws IOException {
+        if (isNotSerializable(obj)) {
+            log.severe("Class " + obj.getClass().getName() + " is not market Serializable");
+            throw new RuntimeException("Class " + obj.getClass().getName() + " is not marked Serializable");
         }
+        writeSerializable(obj, out);
     }
 
-    private <T> T deserializeJsonObject(String json, Class<T> classOfT) throws InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
-        T instance;
-        Constructor<T> declaredConstructor = classOfT.getDeclaredConstructor();
-        declaredConstructor.setAccessible(true);
-        instance = declaredConstructor.newInstance();
-        instance = setFieldsOfJsonObjectInstance(instance, json);
+    @Override
+    public <T> T deserialize(String json, Class<T> classOfT) {
+        if (Collection.class.isAssignableFrom(classOfT)) {
+            throw new RuntimeException("Cannot map directly to collection, wrap collection in type token");
+        }
+        JSONReader reader = new JSONReader(json);
+        T instance = readObject(reader, classOfT);
+        reader.endDocument();
         return instance;
     }
 
-    private <T> T setFieldsOfJsonObjectInstance(T instance, String json) {
-        String compressedJson = StringUtils.removeWhiteSpace(json);
-        String unwrappedJson = StringUtils.removeFirstAndLastCharacter(compressedJson);
-        String[] keyValuePairs = StringUtils.splitPreservingQuotesAndBrackets(unwrappedJson, ',');
-        for (String keyValuePair : keyValuePairs) {
-            setField(keyValuePair, instance);
-        }
-        return instance;
+    public <T> List<T> deserializeList(String json, Class<T> elementType) {
+        JSONReader reader = new JSONReader(json);
+        List<T> list = readList(reader, elementType);
+        reader.endDocument();
+        return list;
     }
 
-    boolean isNotSerializable(Object obj) {
-        return !(obj instanceof Serializable);
+    public Object deserializeArray(String json, Class<?> componentType) {
+        JSONReader reader = new JSONReader(json);
+        Object array = readArray(reader, componentType);
+        reader.endDocument();
+        return array;
     }
 
-    boolean isIterableOrArray(Object obj) {
-        return obj instanceof Iterable<?> || obj.getClass().isArray();
+    private <T> T readObject(JSONReader reader, Class<T> classOfT) {
+        JsonTypeDescriptor descriptor = JsonTypeDescriptor.of(classOfT);
+        T instance = classOfT.cast(descriptor.newInstance());
+        reader.expect('{');
+        if (reader.consumeIf('}')) {
+            return instance;
+        }
+        do {
+            String key = reader.nextName();
+            JsonProperty property = descriptor.getProperty(key);
+            if (property == null) {
+                reader.skipValue();
+            } else {
+                readProperty(reader, property, instance);
+            }
+        } while (reader.nextEntry('}'));
+        return instance;
     }
 
+    private void readProperty(JSONReader reader, JsonProperty property, Object instance) {
+        Class<?> type = property.getType();
+        if (type.isPrimitive()) {
+            if (reader.consumeNull()) {
+                return;
+            }
+            //parse the common primitives in place and store them without boxing
+            if (type == int.class) {
+                property.setInt(instance, reader.nextInt());
+                return;
+            } else if (type == long.class) {
+                property.setLong(instance, reader.nextLong());
+                return;
+            } else if (type == double.class) {
+                property.setDouble(instance, reader.nextDouble());
+                return;
+            } else if (type == boolean.class) {
+                property.setBoolean(instance, reader.nextBoolean());
+                return;
+            }
+        }
+        Object value = readValue(reader, type, property.getGenericType());
+        if (value == null && type.isPrimitive()) {
+            return;
+        }
+        property.set(instance, value);
+    }
 
-    private String serializeJsonObject(Object obj) {
-        List<Field> fields = getNonSyntheticFields(obj);
-        List<String> keyValuePairs = new ArrayList<>();
-        for (Field field : fields) {
-            field.setAccessible(true);
-            try {
-                String keyValuePair = turnFieldToJSONKeyValuePair(obj, field);
-                keyValuePairs.add(keyValuePair);
-            } catch (IllegalAccessException e) {
-                log.severe("field " + field.getName() + " not found");
+    private Object readValue(JSONReader reader, Class<?> type, Type genericType) {
+        char next = reader.peek();
+        if (next == '[') {
+            if (type.isArray()) {
+                return readArray(reader, type.getComponentType());
+            }
+            if (Collection.class.isAssignableFrom(type) && genericType instanceof ParameterizedType parameterizedType) {
+                Type elementType = parameterizedType.getActualTypeArguments()[0];
+                List<?> list = readList(reader, rawType(elementType), elementType);
+                return Set.class.isAssignableFrom(type) ? new LinkedHashSet<>(list) : list;
             }
+            throw new RuntimeException("Cannot map json array to type " + type.getName());
+        }
+        if (next == '{') {
+            return readObject(reader, type);
+        }
+        String value = reader.nextScalar();
+        if (value == null) {
+            return null;
+        }
+        Converter<String, ?> converter = typeConverterRegistry.getConverter(String.class, type);
+        if (converter == null) {
+            throw new RuntimeException("Cannot map json value " + value + " to type " + type.getName());
         }
-        String joinedKeyValuePairs = String.join(",", keyValuePairs);
-        return "{" + joinedKeyValuePairs + "}";
+        return converter.convert(value);
     }
 
-    private String turnFieldToJSONKeyValuePair(Object obj, Field field) throws RuntimeException, IllegalAccessException {
-        Object fieldInstance = field.get(obj);
-        String fieldName = getSerializedNameOfField(field);
-        return stringifyKeyValuePair(fieldInstance, fieldName);
+    private <T> List<T> readList(JSONReader reader, Class<T> elementType) {
+        return readList(reader, elementType, elementType);
     }
 
-    //todo
-    private String serializeJsonArray(Object obj) {
-        List<String> arrayElements = new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    private <T> List<T> readList(JSONReader reader, Class<T> elementType, Type genericElementType) {
+        List<T> list = new ArrayList<>();
+        reader.expect('[');
+        if (reader.consumeIf(']')) {
+            return list;
+        }
+        do {
+            list.add((T) readValue(reader, elementType, genericElementType));
+        } while (reader.nextEntry(']'));
+        return list;
+    }
 
-        if (obj instanceof Iterable<?> iterable) {
-            for (Object element : iterable) {
-                String arrayElement = convertObjectToJson(element);
-                arrayElements.add(arrayElement);
-            }
-        } else {
-            // Process Array
-            int length = Array.getLength(obj);
-            for (int i = 0; i < length; i++) {
-                Object o = Array.get(obj, i);
-                String arrayElement = convertObjectToJson(o);
-                arrayElements.add(arrayElement);
+    private Object readArray(JSONReader reader, Class<?> componentType) {
+        List<?> elements = readList(reader, componentType);
+        Object array = Array.newInstance(componentType, elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            Object element = elements.get(i);
+            if (element != null || !componentType.isPrimitive()) {
+                Array.set(array, i, element);
             }
         }
-        String joinedArrayElements = String.join(",", arrayElements);
-        return "[" + joinedArrayElements + "]";
+        return array;
     }
 
-
-    private String getSerializedNameOfField(Field field) {
-        if (field.isAnnotationPresent(JsonValue.class)) {
-            JsonValue annotation = field.getAnnotation(JsonValue.class);
-            return annotation.value();
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType parameterizedType) {
+            return (Class<?>) parameterizedType.getRawType();
         }
-        return field.getName();
+        return Object.class;
     }
 
-    private String stringifyKeyValuePair(Object fieldInstance, String fieldName) {
-        String stringFomat = "\"" + fieldName + "\":%s";
-        String converted = convertObjectToJson(fieldInstance);
-        return String.format(stringFomat, converted);
+    boolean isNotSerializable(Object obj) {
+        return !(obj instanceof Serializable);
     }
 
+    boolean isIterableOrArray(Object obj) {
+        return obj instanceof Iterable<?> || obj.getClass().isArray();
+    }
 
-    private boolean isJsonObj(String str) {
-        return (str.charAt(0) == '{' && str.charAt(str.length() - 1) == '}') ||
-                (str.charAt(0) == '[' && str.charAt(str.length() - 1) == ']');
 
+    private void writeSerializable(Object obj, Appendable out) throws IOException {
+        if (isNotSerializable(obj)) {
+            log.severe("Class " + obj.getClass().getName() + " is not market Serializable");
+            out.append("null");
+        } else if (isIterableOrArray(obj)) {
+            writeJsonArray(obj, out);
+        } else {
+            writeJsonObject(obj, out);
+        }
     }
 
-
-    private <T> void setField(String fieldValueStr, T instance) {
-        String[] keyValuePair = fieldValueStr.split(":", 2);
-        String key = StringUtils.removeQuotes(keyValuePair[0].trim());
-        String value = isJsonObj(keyValuePair[1]) ?
-                keyValuePair[1] :
-                keyValuePair[1].trim().replaceAll("\"", "");
-        try {
-            Field field = getField(instance, key);
-            field.setAccessible(true);
-            // Check if field is a collection type
-            if (Collection.class.isAssignableFrom(field.getType())) {
-                // Parse as collection using parseJsonArray
-                ParameterizedType genericType = (ParameterizedType) field.getGenericType();
-                Class<?> elementType = (Class<?>) genericType.getActualTypeArguments()[0];
-                List<?> parsedList = parseJsonArray(value, elementType);
-                field.set(instance, parsedList);
-            } else {
-                Optional<?> parsedValue = typeConverterRegistry.convert(value, field.getType());
-                if (parsedValue.isPresent()) {
-                    field.set(instance, parsedValue.get());
-                } else {
-                    Object o = deserialize(value, field.getType());
-                    field.set(instance, o);
-                }
+    private void writeJsonObject(Object obj, Appendable out) throws IOException {
+        JsonProperty[] properties = JsonTypeDescriptor.of(obj.getClass()).getProperties();
+        out.append('{');
+        for (int i = 0; i < properties.length; i++) {
+            if (i > 0) {
+                out.append(',');
             }
-        } catch (IllegalAccessException e) {
-            log.severe("Illegal access on field " + key + " in class " + instance.getClass().getName());
-            throw new RuntimeException(e);
+            out.append(properties[i].getKey());
+            writeValue(properties[i].get(obj), out);
         }
+        out.append('}');
     }
 
-    private static <T> Field getField(T instance, String fieldName) {
-        for (Field field : instance.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            if (field.isAnnotationPresent(JsonValue.class)) {
-                if (field.getAnnotation(JsonValue.class).value().equals(fieldName)) {
-                    return field;
+    private void writeJsonArray(Object obj, Appendable out) throws IOException {
+        out.append('[');
+        if (obj instanceof Iterable<?> iterable) {
+            boolean first = true;
+            for (Object element : iterable) {
+                if (!first) {
+                    out.append(',');
                 }
-            } else if (field.getName().equals(fieldName)) {
-                return field;
+                first = false;
+                writeValue(element, out);
+            }
+        } else {
+            // Process Array
+            int length = Array.getLength(obj);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                writeValue(Array.get(obj, i), out);
             }
         }
-        return null;
+        out.append(']');
     }
 
-    private <T> List<T> parseJsonArray(String jsonArray, Class<?> elementType) {
-        jsonArray = jsonArray.trim();
-        if (jsonArray.startsWith("[") && jsonArray.endsWith("]")) {
-            jsonArray = jsonArray.substring(1, jsonArray.length() - 1).trim();
-        }
-
-        String[] elements = StringUtils.splitPreservingQuotesAndBrackets(jsonArray, ',');
-        List<T> list = new ArrayList<>();
+    /**
+     * Writes any value into {@code out}, unlike {@link #serialize(Object, Appendable)} scalars and null are accepted.
+     */
+    public void serializeValue(Object value, Appendable out) throws IOException {
+        writeValue(value, out);
+    }
 
-        for (String element : elements) {
-            T item = (T) typeConverterRegistry.convert(element, elementType);
-            list.add(item);
+    public String convertObjectToJson(Object value) {
+        StringBuilder json = new StringBuilder();
+        try {
+            writeValue(value, json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        return list;
+        return json.toString();
     }
 
-    public String convertObjectToJson(Object value) {
+    @SuppressWarnings("unchecked")
+    private void writeValue(Object value, Appendable out) throws IOException {
         if (value == null) {
-            return "null";
+            out.append("null");
+            return;
         }
-        String result = typeConverterRegistry.convert(value, String.class).orElseGet(() -> serialize(value));
-
-        if (shouldWrapInQuotes(value)) {
-            return '"' + result + '"';
+        Converter<Object, String> converter = (Converter<Object, String>) typeConverterRegistry.getConverter(value.getClass(), String.class);
+        if (converter == null) {
+            writeSerializable(value, out);
+        } else if (shouldWrapInQuotes(value)) {
+            writeString(converter.convert(value), out);
         } else {
-            return result;
+            out.append(converter.convert(value));
+        }
+    }
+
+    static void writeString(String value, Appendable out) throws IOException {
+        out.append('"');
+        int unescaped = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.append(value, unescaped, i);
+            unescaped = i + 1;
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                default -> out.append(String.format("\\u%04x", (int) c));
+            }
         }
+        out.append(value, unescaped, value.length());
+        out.append('"');
     }
 
     private boolean shouldWrapInQuotes(Object obj) {
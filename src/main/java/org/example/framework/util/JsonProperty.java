@@ -0,0 +1,135 @@
+package org.example.framework.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+
+/**
+ * Accessor for one serialized field, resolved once per class by {@link JsonTypeDescriptor}.
+ */
+class JsonProperty {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String name;
+    //"name": already quoted and escaped, written as is
+    private final String key;
+    private final Class<?> type;
+    private final Type genericType;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    //exact (Object, primitive)void setter, lets primitive values be stored without boxing
+    private final MethodHandle primitiveSetter;
+
+    JsonProperty(Field field, String name) {
+        this.name = name;
+        this.key = escapeKey(name);
+        this.type = field.getType();
+        this.genericType = field.getGenericType();
+        field.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot read field " + field.getName() + " of " + field.getDeclaringClass().getName(), e);
+        }
+        MethodHandle fieldSetter;
+        try {
+            fieldSetter = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            //e.g. final fields of records, they can still be serialized
+            fieldSetter = null;
+        }
+        this.setter = fieldSetter == null ? null : fieldSetter.asType(SETTER_TYPE);
+        this.primitiveSetter = fieldSetter == null || !type.isPrimitive() ? null :
+                fieldSetter.asType(MethodType.methodType(void.class, Object.class, type));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    Type getGenericType() {
+        return genericType;
+    }
+
+    Object get(Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot read field " + name, e);
+        }
+    }
+
+    void set(Object instance, Object value) {
+        if (setter == null) {
+            throw new RuntimeException("Field " + name + " of " + instance.getClass().getName() + " is not writable");
+        }
+        try {
+            setter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot set field " + name + " of " + instance.getClass().getName(), e);
+        }
+    }
+
+    void setInt(Object instance, int value) {
+        try {
+            writablePrimitive(instance).invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot set field " + name + " of " + instance.getClass().getName(), e);
+        }
+    }
+
+    void setLong(Object instance, long value) {
+        try {
+            writablePrimitive(instance).invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot set field " + name + " of " + instance.getClass().getName(), e);
+        }
+    }
+
+    void setDouble(Object instance, double value) {
+        try {
+            writablePrimitive(instance).invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot set field " + name + " of " + instance.getClass().getName(), e);
+        }
+    }
+
+    void setBoolean(Object instance, boolean value) {
+        try {
+            writablePrimitive(instance).invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot set field " + name + " of " + instance.getClass().getName(), e);
+        }
+    }
+
+    private MethodHandle writablePrimitive(Object instance) {
+        if (primitiveSetter == null) {
+            throw new RuntimeException("Field " + name + " of " + instance.getClass().getName() + " is not writable");
+        }
+        return primitiveSetter;
+    }
+
+    private static String escapeKey(String name) {
+        StringBuilder key = new StringBuilder(name.length() + 3);
+        try {
+            JSONSerializer.writeString(name, key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return key.append(':').toString();
+    }
+}
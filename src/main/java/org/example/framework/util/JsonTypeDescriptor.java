@@ -0,0 +1,90 @@
+package org.example.framework.util;
+
+import org.example.framework.web.annotations.JsonValue;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialization metadata of a class, discovered with reflection once and cached per class.
+ */
+class JsonTypeDescriptor {
+    private static final ClassValue<JsonTypeDescriptor> DESCRIPTORS = new ClassValue<>() {
+        @Override
+        protected JsonTypeDescriptor computeValue(Class<?> type) {
+            return new JsonTypeDescriptor(type);
+        }
+    };
+
+    private final Class<?> type;
+    //in declaration order, used when writing
+    private final JsonProperty[] properties;
+    //by serialized name, used when reading
+    private final Map<String, JsonProperty> propertiesByName;
+    private final MethodHandle constructor;
+
+    private JsonTypeDescriptor(Class<?> type) {
+        this.type = type;
+        List<JsonProperty> properties = new ArrayList<>();
+        this.propertiesByName = new HashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            // Synthetic fields are added by the compiler, static ones are not part of the instance
+            if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            JsonProperty property = new JsonProperty(field, getSerializedNameOfField(field));
+            properties.add(property);
+            propertiesByName.put(property.getName(), property);
+        }
+        this.properties = properties.toArray(new JsonProperty[0]);
+        this.constructor = findConstructor(type);
+    }
+
+    static JsonTypeDescriptor of(Class<?> type) {
+        return DESCRIPTORS.get(type);
+    }
+
+    JsonProperty[] getProperties() {
+        return properties;
+    }
+
+    JsonProperty getProperty(String name) {
+        return propertiesByName.get(name);
+    }
+
+    Object newInstance() {
+        if (constructor == null) {
+            throw new RuntimeException("constructor not found for class " + type.getName());
+        }
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot instantiate " + type.getName(), e);
+        }
+    }
+
+    private static String getSerializedNameOfField(Field field) {
+        JsonValue annotation = field.getAnnotation(JsonValue.class);
+        return annotation != null ? annotation.value() : field.getName();
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) {
+        try {
+            Constructor<?> declaredConstructor = type.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            //only needed for deserialization, reported when it is attempted
+            return null;
+        }
+    }
+}
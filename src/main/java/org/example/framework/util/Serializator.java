@@ -1,5 +1,6 @@
 package org.example.framework.util;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.List;
@@ -7,6 +8,8 @@ import java.util.List;
 public interface Serializator {
     String serialize(Object obj);
 
+    void serialize(Object obj, Appendable out) throws IOException;
+
     <T> T deserialize(String serialized, Class<T> targetType);
 
     /**
@@ -3,7 +3,7 @@ package org.example.framework.util.type;
 import java.util.Objects;
 import java.util.function.Function;
 
-class Converter<T, S> {
+public class Converter<T, S> {
     private Class<T> sourceType;
     private Class<S> targetType;
     private Function<T, S> converterFunction;
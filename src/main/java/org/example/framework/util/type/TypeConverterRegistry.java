@@ -15,47 +15,70 @@ public class TypeConverterRegistry {
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
-    private final Set<Converter> converters;
+    //source type -> target type -> converter, never mutated once published,
+    //changes build a new index and swap it in so lookups stay lock free
+    private volatile Map<Class<?>, Map<Class<?>, Converter>> converters;
 
     public TypeConverterRegistry() {
-        this.converters = new HashSet<>();
+        this.converters = new IdentityHashMap<>();
         initializeConverters();
     }
 
     public <T, S> Optional<S> convert(T source, Class<S> targetType) throws RuntimeException {
-        Optional<Converter> converter = findConverter(source.getClass(), targetType);
-        if (converter.isEmpty()) {
+        Converter converter = findConverter(source.getClass(), targetType);
+        if (converter == null) {
             return Optional.empty();
         }
-        return Optional.of((S) converter.get().convert(source));
+        return Optional.of((S) converter.convert(source));
     }
 
-    private Optional<Converter> findConverter(Class<?> sourceType, Class<?> targetType) {
-        for (Converter converter : converters) {
-            if (sourceAndTargetAreEqual(converter, sourceType, targetType)) {
-                return Optional.of(converter);
-            }
+    /**
+     * Resolves the converter between two types once, callers can keep it per field or parameter
+     * instead of looking it up and unwrapping an Optional for every value.
+     *
+     * @return the converter, or null if none is registered
+     */
+    @SuppressWarnings("unchecked")
+    public <T, S> Converter<T, S> getConverter(Class<T> sourceType, Class<S> targetType) {
+        return findConverter(sourceType, targetType);
+    }
+
+    private Converter findConverter(Class<?> sourceType, Class<?> targetType) {
+        Map<Class<?>, Converter> byTarget = converters.get(sourceType);
+        if (byTarget == null) {
+            return null;
         }
-        return Optional.empty();
+        return byTarget.get(targetType);
     }
 
-    public <T, S> void registerConverter(Class<T> sourceType, Class<S> targetType, Function<T, S> convertionFunction) {
+    public synchronized <T, S> void registerConverter(Class<T> sourceType, Class<S> targetType, Function<T, S> convertionFunction) {
         Converter<T, S> converter = new Converter<>(sourceType, targetType, convertionFunction);
-        converters.add(converter);
+        Map<Class<?>, Map<Class<?>, Converter>> index = new IdentityHashMap<>(converters);
+        Map<Class<?>, Converter> byTarget = new IdentityHashMap<>(index.getOrDefault(sourceType, Collections.emptyMap()));
+        byTarget.put(targetType, converter);
+        index.put(sourceType, byTarget);
+        converters = index;
     }
 
-    public <T, S> void removeConverter(Class<T> sourceType, Class<S> targetType) {
-        converters.removeIf(s -> sourceAndTargetAreEqual(s, sourceType, targetType));
+    public synchronized <T, S> void removeConverter(Class<T> sourceType, Class<S> targetType) {
+        Map<Class<?>, Converter> current = converters.get(sourceType);
+        if (current == null || !current.containsKey(targetType)) {
+            return;
+        }
+        Map<Class<?>, Map<Class<?>, Converter>> index = new IdentityHashMap<>(converters);
+        Map<Class<?>, Converter> byTarget = new IdentityHashMap<>(current);
+        byTarget.remove(targetType);
+        if (byTarget.isEmpty()) {
+            index.remove(sourceType);
+        } else {
+            index.put(sourceType, byTarget);
+        }
+        converters = index;
     }
 
 
     public boolean hasConverter(Class<?> sourceClass, Class<?> destinationClass) {
-        return findConverter(sourceClass, destinationClass).isPresent();
-    }
-
-
-    private <T, S> boolean sourceAndTargetAreEqual(Converter converter, Class<T> sourceType, Class<S> targetType) {
-        return converter.getSourceType().equals(sourceType) && converter.getTargetType().equals(targetType);
+        return findConverter(sourceClass, destinationClass) != null;
     }
 
     private void initializeConverters() {
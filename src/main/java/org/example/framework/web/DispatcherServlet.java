@@ -1,18 +1,24 @@
 package org.example.framework.web;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.framework.core.IOContainer;
+import org.example.framework.core.RequestScope;
 import org.example.framework.core.annotations.Component;
 import org.example.framework.core.annotations.Inject;
 import org.example.framework.security.annotations.PreAuthorize;
 import org.example.framework.security.session.SessionService;
 import org.example.framework.security.user.Authority;
+import org.example.framework.security.user.AuthoritySet;
 import org.example.framework.security.user.UserDetails;
 import org.example.framework.util.*;
+import org.example.framework.util.type.Converter;
 import org.example.framework.util.type.TypeConverterRegistry;
 import org.example.framework.web.annotations.*;
 
@@ -20,32 +26,53 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+import java.util.stream.Stream;
 
 @Component
 public class DispatcherServlet extends HttpServlet {
     private static final Logger log = Logger.getLogger(DispatcherServlet.class.getName());
-    //request mapping to method
-    Set<Endpoint> endpoints = new HashSet<>();
+    private static final String USER_ATTRIBUTE = DispatcherServlet.class.getName() + ".user";
+    //marks a request already known to have no user
+    private static final Object ANONYMOUS = new Object();
+    //request mapping to method, compiled once in init
+    Router router = new Router();
     //method wto controller instance
 
+    //how long an asynchronous handler may take before the request fails with 503
+    private long asyncTimeout = 30_000;
+    private long responseCacheSize = 32 * 1024 * 1024;
+    //responses of @Cacheable endpoints, emptied when the servlet is initialized again
+    private ResponseCache responseCache;
+
     @Inject
     SessionService sessionService;
     @Inject
     JSONSerializer jsonSerializer;
     @Inject
     TypeConverterRegistry typeConverterRegistry;
+    @Inject
+    FileResponseWriter fileResponseWriter;
 
     //todo too long
     @Override
     public void init(ServletConfig config) {
-        Map<String, Object> beans = IOContainer.getInstance().getBeans();
-        for (Map.Entry<String, Object> entry : beans.entrySet()) {
-            Object instance = entry.getValue();
-            if (!instance.getClass().isAnnotationPresent(Controller.class)) {
-                continue;
-            }
+        //a fresh router, the servlet is a singleton bean and is initialized again when a server restarts
+        Router router = new Router();
+        //creates lazy controllers as well
+        for (Object instance : IOContainer.getInstance().getBeansWithAnnotation(Controller.class)) {
             for (Method method : instance.getClass().getDeclaredMethods()) {
                 if (!method.isAnnotationPresent(RequestMapping.class)) {
                     continue;
@@ -53,21 +80,36 @@ public class DispatcherServlet extends HttpServlet {
                 RequestMapping annotation = method.getAnnotation(RequestMapping.class);
                 log.info("Mapping " + annotation.path() + " to " + method.getName());
                 Endpoint endpoint = new Endpoint(method, instance.getClass(), annotation.method(), annotation.path());
+                if (endpoint.getCacheable() != null && annotation.method() != RequestType.GET) {
+                    throw new RuntimeException("@Cacheable is only supported on GET endpoints: " + annotation.path());
+                }
+                if (endpoint.getCacheable() != null && Arrays.asList(method.getParameterTypes()).contains(HttpServletResponse.class)) {
+                    //what the handler writes to the response itself would bypass the cache
+                    throw new RuntimeException("@Cacheable endpoints cannot take the HttpServletResponse: " + annotation.path());
+                }
+                if (endpoint.getCacheable() != null && Arrays.asList(method.getParameterTypes()).contains(UserDetails.class)) {
+                    //the key does not name the user, one user's response would be served to everybody
+                    throw new RuntimeException("@Cacheable endpoints cannot take the UserDetails: " + annotation.path());
+                }
 
                 if (method.isAnnotationPresent(PreAuthorize.class)) {
                     PreAuthorize preAuthorize = method.getAnnotation(PreAuthorize.class);
                     for (String authority : preAuthorize.allowedAuthorities()) {
-                        endpoint.getAllowedAuthorities().add(new Authority(authority));
+                        endpoint.getAllowedAuthorities().add(Authority.intern(authority));
                     }
                 }
-                if (endpoints.contains(endpoint)) {
-                    log.severe("Duplicate endpoint mapping for " + annotation.path());
-                    throw new RuntimeException("Duplicate endpoint mapping for " + annotation.path());
-                } else {
-                    endpoints.add(endpoint);
+                endpoint.setInvoker(createInvoker(instance, endpoint));
+                endpoint.setRequestScopeRequired(isRequestScopeRequired(instance, method));
+                try {
+                    router.register(endpoint);
+                } catch (RuntimeException e) {
+                    log.severe(e.getMessage());
+                    throw e;
                 }
             }
         }
+        this.responseCache = new ResponseCache(responseCacheSize);
+        this.router = router;
     }
 
     //todo
@@ -75,69 +117,56 @@ public class DispatcherServlet extends HttpServlet {
     protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         String path = req.getRequestURI();
         RequestType requestType = RequestType.fromString(req.getMethod());
-        Optional<Endpoint> endpoint = Endpoint.get(endpoints, requestType, path);
+        RouteMatch match = router.match(requestType, path);
 
 
-        if (endpoint.isPresent()) {
+        if (match != null) {
+            Endpoint endpoint = match.getEndpoint();
+            //most endpoints never look at the scope, they are spared the allocation and the ThreadLocal
+            RequestScope scope = endpoint.isRequestScopeRequired() ? RequestScope.begin(req, resp) : null;
+            boolean async = false;
             try {
-                UserDetails user = sessionService.getUserDetailsFromSession(req);
-                boolean hasAuthority = false;
-                if (user != null) {
-                    if (endpoint.get().getAllowedAuthorities().isEmpty()) {
-                        hasAuthority = true;
-                    } else {
-                        for (Authority authority : user.getAuthorities()) {
-                            if (endpoint.get().getAllowedAuthorities().contains(authority)) {
-                                hasAuthority = true;
-                                break;
-                            }
-                        }
-                    }
-                    if (!hasAuthority) {
+                AuthoritySet allowed = endpoint.getAllowedAuthorities();
+                if (endpoint.isPrincipalRequired() && !allowed.isEmpty()) {
+                    UserDetails user = getUser(req);
+                    if (user != null && !user.getAuthorities().intersects(allowed)) {
                         resp.setStatus(HttpServletResponse.SC_FORBIDDEN);
                         return;
                     }
                 }
 
-                IOContainer ioc = IOContainer.getInstance();
-
-                //get the controller instance from ioc container
-                Object controller = ioc.getBean(endpoint.get().getController());
-                Method method = endpoint.get().getMethod();
-
-                List<Object> params = injectParameters(method, req, resp);
+                String cacheKey = endpoint.getCacheable() == null ? null : getCacheKey(endpoint.getCacheable(), req);
+                ResponseCache.CachedResponse cached = cacheKey == null ? null : responseCache.get(cacheKey);
+                if (cached != null) {
+                    writeCachedResponse(cached, req, resp);
+                    return;
+                }
 
-                Object result = method.invoke(controller, params.toArray());
+                Object result = endpoint.getInvoker().invoke(req, resp, match);
 
-                if (result instanceof ResponseEntity<?> responseEntity) {
-                    Object body = responseEntity.getBody();
-                    if (body == null) {
-                        resp.setStatus(responseEntity.getStatus());
-                        return;
-                    }
-                    Optional<String> converted = typeConverterRegistry.convert(body, String.class);
-                    if (converted.isPresent()) {
-                        resp.setStatus(responseEntity.getStatus());
-                        resp.getWriter().write(converted.get());
-                    } else {
-                        resp.setContentType("application/json");
-                        String json = "";
-                        if (body != null) {
-                            json = this.jsonSerializer.serialize(body);
-                        }
-                        resp.setStatus(responseEntity.getStatus());
-                        resp.getWriter().write(json);
-                    }
-                } else if (result instanceof String) {
-                    resp.setContentType("text/plain");
-                    resp.getWriter().write(result.toString());
+                if (cacheKey != null && isCacheable(result)) {
+                    writeAndCache(result, cacheKey, endpoint.getCacheable(), req, resp);
+                } else if (result instanceof CompletionStage<?> stage) {
+                    //the container thread is released, the response is written when the stage completes
+                    startAsync(req, resp, stage, scope);
+                    async = true;
+                } else if (result instanceof Flow.Publisher<?> publisher) {
+                    streamAsync(req, resp, publisher, scope);
+                    async = true;
+                } else {
+                    writeResult(result, req, resp);
                 }
 
             } catch (
                     Exception e) {
-                resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-                PrintWriter writer = resp.getWriter();
-                writer.write("Error: " + e.getMessage());
+                writeError(e, resp);
+            } finally {
+                //the worker thread goes on to other requests, an asynchronous one must not stay bound to it
+                if (scope != null && async) {
+                    scope.detach();
+                } else if (scope != null) {
+                    scope.end();
+                }
             }
         } else {
             resp.
@@ -151,79 +180,463 @@ public class DispatcherServlet extends HttpServlet {
         }
     }
 
-    
-    private List<Object> injectParameters(Method method, HttpServletRequest req, HttpServletResponse resp) throws ServletException {
-        List<Object> params = new ArrayList<>();
-        for (Parameter param : method.getParameters()) {
-            if (param.isAnnotationPresent(RequestBody.class)) {
-                params.add(resolveRequestBody(param, req));
-            } else if (param.isAnnotationPresent(RequestParam.class)) {
-                params.add(resolveRequestParam(param, req));
-            } else if (param.isAnnotationPresent(PathVariable.class)) {
-                params.add(resolverPathVariable(param, req));
-            } else if (param.getType().equals(HttpServletRequest.class)) {
-                params.add(req);
-            } else if (param.getType().equals(HttpServletResponse.class)) {
-                params.add(resp);
-            } else if (param.getType().equals(UserDetails.class)) {
-                params.add(sessionService.getUserDetailsFromSession(req));
-            } else {
-                IOContainer.getInstance().getBeans().values().stream()
-                        .filter(bean -> param.getType().isAssignableFrom(bean.getClass()))
-                        .findFirst()
-                        .ifPresent(params::add);
+    private void startAsync(HttpServletRequest req, HttpServletResponse resp, CompletionStage<?> stage, RequestScope scope) {
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(asyncTimeout);
+        //the result and the timeout race, only the first one writes the response
+        AtomicBoolean done = new AtomicBoolean();
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (done.compareAndSet(false, true)) {
+                    if (stage instanceof CompletableFuture<?> future) {
+                        future.cancel(true);
+                    }
+                    resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    resp.getWriter().write("Error: Request timed out after " + asyncTimeout + "ms");
+                    asyncContext.complete();
+                    endScope(scope);
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                if (done.compareAndSet(false, true)) {
+                    log.severe("Asynchronous request failed: " + event.getThrowable());
+                    asyncContext.complete();
+                    endScope(scope);
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        stage.whenComplete((result, error) -> {
+            if (!done.compareAndSet(false, true)) {
+                return;
             }
+            //writing may use request scoped beans or set cookies on the scope's response
+            RequestScope previous = scope != null ? scope.attach() : RequestScope.current();
+            try {
+                if (error != null) {
+                    writeError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error, resp);
+                } else {
+                    writeResult(result, req, resp);
+                }
+            } catch (Exception e) {
+                log.severe("Cannot write asynchronous result: " + e.getMessage());
+            } finally {
+                asyncContext.complete();
+                endScope(scope);
+                RequestScope.restore(previous);
+            }
+        });
+    }
+
+    /**
+     * Streams the published elements as they arrive, requesting a batch at a time so a fast publisher cannot outrun the client.
+     * There is no timeout, event streams are meant to stay open.
+     */
+    private void streamAsync(HttpServletRequest req, HttpServletResponse resp, Flow.Publisher<?> publisher, RequestScope scope) throws IOException {
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(0);
+        StreamingResponseWriter writer = new StreamingResponseWriter(jsonSerializer, req.getHeader("Accept"), resp);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        //stops the publisher and releases the request once, without completing a context the container completed
+        Consumer<Boolean> finish = complete -> {
+            if (done.compareAndSet(false, true)) {
+                Flow.Subscription current = subscription.get();
+                if (current != null) {
+                    current.cancel();
+                }
+                if (complete) {
+                    asyncContext.complete();
+                }
+                endScope(scope);
+            }
+        };
+        //an idle publisher never notices that the client is gone, the container does
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                finish.accept(true);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                log.info("Client closed the connection, stopped streaming");
+                finish.accept(true);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+                finish.accept(false);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        publisher.subscribe(new Flow.Subscriber<Object>() {
+            private int requested;
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                //done is checked after the subscription is published, finish either sees it or it sees done
+                if (!subscription.compareAndSet(null, s) || done.get()) {
+                    s.cancel();
+                    return;
+                }
+                requested = StreamingResponseWriter.FLUSH_INTERVAL;
+                s.request(requested);
+            }
+
+            @Override
+            public void onNext(Object item) {
+                //items may still arrive after a cancel, the response may be completed and recycled by then
+                if (done.get()) {
+                    return;
+                }
+                try {
+                    boolean open = writer.write(item);
+                    if (open && --requested == 0) {
+                        open = writer.flush();
+                        requested = StreamingResponseWriter.FLUSH_INTERVAL;
+                        subscription.get().request(requested);
+                    }
+                    if (!open) {
+                        finish.accept(true);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.severe("Cannot stream element: " + e.getMessage());
+                    finish.accept(true);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                if (done.get()) {
+                    return;
+                }
+                if (resp.isCommitted()) {
+                    //the status is already sent, the truncated body is all the client gets
+                    log.severe("Streamed response failed: " + throwable.getMessage());
+                } else {
+                    //nothing has left the buffer yet, the client gets a proper error instead
+                    try {
+                        resp.reset();
+                        writeError(throwable, resp);
+                    } catch (IOException | RuntimeException e) {
+                        log.severe("Cannot write streaming error: " + e.getMessage());
+                    }
+                }
+                finish.accept(true);
+            }
+
+            @Override
+            public void onComplete() {
+                if (done.get()) {
+                    return;
+                }
+                writer.end();
+                finish.accept(true);
+            }
+        });
+    }
+
+    //null for endpoints that do not need the scope
+    private static void endScope(RequestScope scope) {
+        if (scope != null) {
+            scope.end();
         }
-        return params;
+    }
 
+    private void writeStream(Iterator<?> elements, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        StreamingResponseWriter writer = new StreamingResponseWriter(jsonSerializer, req.getHeader("Accept"), resp);
+        while (elements.hasNext()) {
+            if (!writer.write(elements.next())) {
+                log.info("Client closed the connection, stopped streaming");
+                return;
+            }
+        }
+        writer.end();
     }
 
-    private Object resolverPathVariable(Parameter param, HttpServletRequest req) throws ServletException {
-        String pathVarName = param.getAnnotation(PathVariable.class).name();
-        if (pathVarName.isEmpty()) {
-            pathVarName = param.getName();
+    //shared by synchronous and asynchronous handlers
+    private void writeResult(Object result, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (result instanceof Stream<?> stream) {
+            //closed so resources behind the stream, e.g. a database cursor, are released
+            try (stream) {
+                writeStream(stream.iterator(), req, resp);
+            }
+        } else if (result instanceof Iterator<?> iterator) {
+            writeStream(iterator, req, resp);
+        } else if (result instanceof ResponseEntity<?> responseEntity) {
+            writeBody(responseEntity.getStatus(), responseEntity.getBody(), req, resp);
+        } else if (result instanceof String) {
+            resp.setContentType("text/plain");
+            resp.getWriter().write(result.toString());
+        } else if (result != null) {
+            writeBody(HttpServletResponse.SC_OK, result, req, resp);
         }
+    }
 
-        String[] sourcePathSegments = req.getRequestURI().split("/");
-        String targetPath = Endpoint.get(endpoints, RequestType.fromString(req.getMethod()), req.getRequestURI()).get().getPath();
-        String[] targetSegments = targetPath.split("/");
-        if (sourcePathSegments.length != targetSegments.length) {
-            //should never happen but anyways
-            throw new ServletException("Cannot resolve path variable, request uri doesnt match");
+    private void writeBody(int status, Object body, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (body == null) {
+            resp.setStatus(status);
+            return;
+        }
+        //binary bodies go to the OutputStream, never through the PrintWriter
+        if (body instanceof Path path) {
+            if (!fileResponseWriter.write(path, status, req, resp)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                resp.getWriter().write("404 Not Found");
+            }
+            return;
+        }
+        if (body instanceof byte[] || body instanceof ByteBuffer) {
+            ByteBuffer buffer = body instanceof byte[] bytes ? ByteBuffer.wrap(bytes) : (ByteBuffer) body;
+            resp.setStatus(status);
+            resp.setContentType("application/octet-stream");
+            resp.setContentLength(buffer.remaining());
+            fileResponseWriter.write(buffer, resp);
+            return;
         }
+        Optional<String> converted = typeConverterRegistry.convert(body, String.class);
+        if (converted.isPresent()) {
+            resp.setStatus(status);
+            resp.getWriter().write(converted.get());
+        } else {
+            resp.setContentType("application/json");
+            resp.setStatus(status);
+            //stream the json into the response instead of materializing it as a String first
+            this.jsonSerializer.serialize(body, resp.getWriter());
+        }
+    }
 
-        for (int i = 0; i < targetSegments.length; i++) {
-            String seg = targetSegments[i];
-            if (seg.startsWith("{") && seg.endsWith("}")) {
-                String currentPathVar = seg.substring(1, seg.length() - 1);
-                if (currentPathVar.equals(pathVarName)) {
-                    String element = sourcePathSegments[i];
-                    Optional<?> o = typeConverterRegistry.convert(element, param.getType());
-                    if (o.isEmpty()) {
-                        throw new ServletException(String.format("Cannot map path variable %s with value %s to type %s", element, req.getRequestURI(), param.getType().getName()));
-                    }
-                    return o.get();
+    private void writeError(Throwable e, HttpServletResponse resp) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        PrintWriter writer = resp.getWriter();
+        writer.write("Error: " + e.getMessage());
+    }
+
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+    }
+
+    //takes effect when the servlet is initialized
+    public void setResponseCacheSize(long responseCacheSize) {
+        this.responseCacheSize = responseCacheSize;
+    }
+
+    //the request path holds the path variables, parameters are added in a fixed order
+    private String getCacheKey(Cacheable cacheable, HttpServletRequest req) {
+        StringBuilder key = new StringBuilder(req.getRequestURI());
+        String[] names = cacheable.key();
+        if (names.length == 0) {
+            names = req.getParameterMap().keySet().toArray(new String[0]);
+            Arrays.sort(names);
+        }
+        char separator = '?';
+        for (String name : names) {
+            String[] values = req.getParameterValues(name);
+            key.append(separator).append(name).append('=');
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+            separator = '&';
+        }
+        if (cacheable.varyByAuthorities()) {
+            UserDetails user = getUser(req);
+            key.append('#');
+            if (user != null) {
+                for (long word : user.getAuthorities().toLongArray()) {
+                    key.append(Long.toHexString(word)).append('.');
                 }
             }
         }
-        throw new ServletException();
+        return key.toString();
+    }
+
+    //streamed and asynchronous results are never cached, neither are empty ones
+    private static boolean isCacheable(Object result) {
+        //the body decides, a file in an entity may be sent with sendfile past the buffer
+        Object body = result instanceof ResponseEntity<?> entity ? entity.getBody() : result;
+        if (body == null) {
+            return false;
+        }
+        return !(body instanceof CompletionStage<?> || body instanceof Flow.Publisher<?> || body instanceof Stream<?>
+                || body instanceof Iterator<?> || body instanceof Path);
+    }
+
+    private void writeAndCache(Object result, String cacheKey, Cacheable cacheable, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        BufferedResponse buffered = new BufferedResponse(resp);
+        writeResult(result, req, buffered);
+        byte[] body = buffered.getBody();
+        //a cookie belongs to the user it was set for, e.g. a session created by the handler
+        if (resp.getStatus() != HttpServletResponse.SC_OK || resp.containsHeader("Set-Cookie")) {
+            resp.setContentLength(body.length);
+            resp.getOutputStream().write(body);
+            return;
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(body);
+        String etag = "\"" + Integer.toHexString(body.length) + "-" + Long.toHexString(checksum.getValue()) + "\"";
+        ResponseCache.CachedResponse cached = new ResponseCache.CachedResponse(resp.getContentType(), getHeaders(resp), body, etag,
+                System.currentTimeMillis() + cacheable.ttl() * 1000);
+        responseCache.put(cacheKey, cached);
+        writeCachedResponse(cached, req, resp);
+    }
+
+    //headers the handler set, replayed on every hit
+    private static Map<String, List<String>> getHeaders(HttpServletResponse resp) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : resp.getHeaderNames()) {
+            if (!name.equalsIgnoreCase("Content-Type") && !name.equalsIgnoreCase("Content-Length")) {
+                headers.put(name, List.copyOf(resp.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static void writeCachedResponse(ResponseCache.CachedResponse cached, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        for (Map.Entry<String, List<String>> header : cached.headers().entrySet()) {
+            //set, not added, on a miss the response carries them already
+            resp.setHeader(header.getKey(), header.getValue().get(0));
+            for (int i = 1; i < header.getValue().size(); i++) {
+                resp.addHeader(header.getKey(), header.getValue().get(i));
+            }
+        }
+        resp.setHeader("ETag", cached.etag());
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || Arrays.asList(ifNoneMatch.split("\\s*,\\s*")).contains(cached.etag()))) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        resp.setStatus(HttpServletResponse.SC_OK);
+        if (cached.contentType() != null) {
+            resp.setContentType(cached.contentType());
+        }
+        resp.setContentLength(cached.body().length);
+        resp.getOutputStream().write(cached.body());
+    }
+
+    //request and session scoped beans reached from the controller or a parameter are looked up in the request's scope
+    private static boolean isRequestScopeRequired(Object controller, Method method) {
+        IOContainer container = IOContainer.getInstance();
+        if (container.needsRequestScope(controller.getClass())) {
+            return true;
+        }
+        for (Parameter param : method.getParameters()) {
+            boolean bean = !param.isAnnotationPresent(RequestBody.class) && !param.isAnnotationPresent(RequestParam.class)
+                    && !param.isAnnotationPresent(PathVariable.class);
+            if (bean && container.needsRequestScope(param.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EndpointInvoker createInvoker(Object controller, Endpoint endpoint) {
+        Parameter[] parameters = endpoint.getMethod().getParameters();
+        ParameterResolver[] resolvers = new ParameterResolver[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            resolvers[i] = createParameterResolver(parameters[i], endpoint);
+        }
+        return new EndpointInvoker(controller, endpoint.getMethod(), resolvers);
+    }
+
+    private ParameterResolver createParameterResolver(Parameter param, Endpoint endpoint) {
+        Class<?> type = param.getType();
+        if (param.isAnnotationPresent(RequestBody.class)) {
+            return requestBodyResolver(param);
+        } else if (param.isAnnotationPresent(RequestParam.class)) {
+            return requestParamResolver(param);
+        } else if (param.isAnnotationPresent(PathVariable.class)) {
+            return pathVariableResolver(param, endpoint);
+        } else if (type.equals(HttpServletRequest.class)) {
+            return (req, resp, match) -> req;
+        } else if (type.equals(HttpServletResponse.class)) {
+            return (req, resp, match) -> resp;
+        } else if (type.equals(UserDetails.class)) {
+            return (req, resp, match) -> getUser(req);
+        }
+        IOContainer container = IOContainer.getInstance();
+        if (!container.isSingleton(type)) {
+            //the instance of the current request, session or a new one
+            return (req, resp, match) -> container.getBean(type);
+        }
+        Object bean = container.getBean(type);
+        return (req, resp, match) -> bean;
+    }
+
+    //looked up at most once per request, and only by endpoints that need the user
+    private UserDetails getUser(HttpServletRequest req) {
+        Object user = req.getAttribute(USER_ATTRIBUTE);
+        if (user == null) {
+            user = sessionService.getUserDetailsFromSession(req);
+            req.setAttribute(USER_ATTRIBUTE, user == null ? ANONYMOUS : user);
+        }
+        return user == ANONYMOUS ? null : (UserDetails) user;
+    }
 
+    private ParameterResolver pathVariableResolver(Parameter param, Endpoint endpoint) {
+        String pathVarName = param.getAnnotation(PathVariable.class).name();
+        if (pathVarName.isEmpty()) {
+            pathVarName = param.getName();
+        }
+        int index = Arrays.asList(endpoint.getPathVariableNames()).indexOf(pathVarName);
+        if (index < 0) {
+            throw new RuntimeException("Path variable " + pathVarName + " is not part of " + endpoint.getPath());
+        }
+        Converter<String, ?> converter = getStringConverter(param);
+        //values were captured when the request was routed, no need to match the uri again
+        return (req, resp, match) -> converter.convert(match.getPathVariable(index));
     }
 
-    private Object resolveRequestParam(Parameter param, HttpServletRequest req) throws ServletException {
+    private ParameterResolver requestParamResolver(Parameter param) {
         String paramName = param.getAnnotation(RequestParam.class).name();
         if (paramName.equals("")) {
             paramName = param.getName();
         }
-        String parameter = req.getParameter(paramName);
-        Optional<?> o = typeConverterRegistry.convert(parameter, param.getType());
-        if (o.isEmpty()) {
-            throw new ServletException(String.format("Cannot map req param %s with value %s to type %s", paramName, req.getRequestURI(), param.getType().getName()));
+        String name = paramName;
+        Converter<String, ?> converter = getStringConverter(param);
+        return (req, resp, match) -> converter.convert(req.getParameter(name));
+    }
+
+    //resolved once per parameter, requests call the converter directly
+    private Converter<String, ?> getStringConverter(Parameter param) {
+        Converter<String, ?> converter = typeConverterRegistry.getConverter(String.class, param.getType());
+        if (converter == null) {
+            throw new RuntimeException(String.format("Cannot map parameter %s to type %s", param.getName(), param.getType().getName()));
         }
-        return o.get();
+        return converter;
     }
 
-    private Object resolveRequestBody(Parameter param, HttpServletRequest req) throws ServletException {
+    private ParameterResolver requestBodyResolver(Parameter param) {
+        Class<?> type = param.getType();
+        //arrays and colletions must be handled here because of type amnsia
+        Function<String, Object> jsonReader;
+        if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            jsonReader = body -> jsonSerializer.deserializeArray(body, componentType);
+        } else if (Collection.class.isAssignableFrom(type)) {
+            Class<?> elementType = getCollectionElementType(param);
+            jsonReader = body -> elementType == null ? Collections.emptyList() : jsonSerializer.deserializeList(body, elementType);
+        } else {
+            jsonReader = body -> jsonSerializer.deserialize(body, type);
+        }
+        String name = param.getName();
+        return (req, resp, match) -> resolveRequestBody(name, type, jsonReader, req);
+    }
+
+    private Object resolveRequestBody(String name, Class<?> type, Function<String, Object> jsonReader, HttpServletRequest req) throws ServletException {
         String header = req.getHeader("Content-Type");
         if (header == null) {
             throw new ServletException("Cannot find content type to reseolve request body");
@@ -231,65 +644,31 @@ public class DispatcherServlet extends HttpServlet {
         try {
             String body = getRequestBody(req);
             if (header.equals("application/json")) {
-                //arrays and colletions must be handled here because of type amnsia
-                Object o;
-                if (param.getType().isArray()) {
-                    o = handleArray(param, body);
-                } else if (Collection.class.isAssignableFrom(param.getType())) {
-                    o = handleCollection(param, body);
-                } else {
-                    o = jsonSerializer.deserialize(body, param.getType());
-                }
-                return o;
-            } else if (param.getType().equals(String.class)) {
+                return jsonReader.apply(body);
+            } else if (type.equals(String.class)) {
                 return body;
             }
         } catch (IOException e) {
-            log.severe("Encountered error while parsing parameter " + param.getName() + " in met");
+            log.severe("Encountered error while parsing parameter " + name + " in met");
             throw new RuntimeException(e);
         }
         return null;
     }
 
-    private Collection<Object> handleCollection(Parameter param, String body) {
+    private Class<?> getCollectionElementType(Parameter param) {
         if (param.getParameterizedType() instanceof ParameterizedType parameterizedType) {
             // Check if the parameter is a Collection (or any parameterized type)
             Type[] typeArgs = parameterizedType.getActualTypeArguments();
             if (typeArgs.length > 0) {
-                Type typeArg = typeArgs[0];
-                body = StringUtils.removeWhiteSpace(body);
-                body = body.substring(1, body.length() - 1);
-                String[] subJsons = StringUtils.splitPreservingQuotesAndBrackets(body, ',');
-                List<Object> list = new LinkedList<>();
-
-                for (int i = 0; i < subJsons.length; i++) {
-                    String s = subJsons[i];
-                    Object o = jsonSerializer.deserialize(s, (Class<?>) typeArg);
-                    list.add(o);
-                }
-                return list;
+                return (Class<?>) typeArgs[0];
             }
         }
         log.severe("The parameter is NOT a collection.");
-        return Collections.emptyList();
-    }
-
-    private Object handleArray(Parameter param, String body) {
-        Class<?> componentType = param.getType().getComponentType();
-        body = StringUtils.removeWhiteSpace(body);
-        body = body.substring(1, body.length() - 1);
-        String[] subJsons = StringUtils.splitPreservingQuotesAndBrackets(body, ',');
-        Object arr = Array.newInstance(componentType, subJsons.length);
-        for (int i = 0; i < subJsons.length; i++) {
-            String s = subJsons[i];
-            Object o = jsonSerializer.deserialize(s, componentType);
-            Array.set(arr, i, o);
-        }
-        return arr;
+        return null;
     }
 
     private String getRequestBody(HttpServletRequest req) throws IOException {
-        StringBuffer buffer = new StringBuffer();
+        StringBuilder buffer = new StringBuilder();
         String line;
         try (BufferedReader reader = req.getReader()) {
             while ((line = reader.readLine()) != null) {
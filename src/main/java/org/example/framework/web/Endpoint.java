@@ -1,6 +1,9 @@
 package org.example.framework.web;
 
-import org.example.framework.security.user.Authority;
+import org.example.framework.security.annotations.PreAuthorize;
+import org.example.framework.security.user.AuthoritySet;
+import org.example.framework.security.user.UserDetails;
+import org.example.framework.web.annotations.Cacheable;
 
 import java.lang.reflect.Method;
 import java.util.*;
@@ -10,17 +13,31 @@ public class Endpoint {
     private final Method method;
     private final Class<?> controller;
     private final RequestType requestType;
-    private final Set<Authority> allowedAuthorities;
+    //any one of them grants access, empty if every logged in user may call the endpoint
+    private final AuthoritySet allowedAuthorities;
+    private final String[] pathVariableNames;
+    //null if responses are not cached
+    private final Cacheable cacheable;
+    //false for public endpoints, their requests never look up the session
+    private final boolean principalRequired;
+    //false if neither the controller nor the parameters reach request or session scoped beans
+    private boolean requestScopeRequired;
+    private EndpointInvoker invoker;
 
     public Endpoint(Method method, Class<?> controllerClass, RequestType requestType, String path) {
         this.method = method;
         this.requestType = requestType;
         this.path = path;
         this.controller = controllerClass;
-        this.allowedAuthorities = new HashSet<>();
+        this.allowedAuthorities = new AuthoritySet();
+        this.pathVariableNames = parsePathVariableNames(path);
+        this.cacheable = method.getAnnotation(Cacheable.class);
+        this.principalRequired = method.isAnnotationPresent(PreAuthorize.class)
+                || Arrays.asList(method.getParameterTypes()).contains(UserDetails.class)
+                || (cacheable != null && cacheable.varyByAuthorities());
     }
 
-    public Set<Authority> getAllowedAuthorities() {
+    public AuthoritySet getAllowedAuthorities() {
         return allowedAuthorities;
     }
 
@@ -40,44 +57,49 @@ public class Endpoint {
         return path;
     }
 
-    public static Optional<Endpoint> get(Set<Endpoint> endpoints, RequestType requestType, String path) {
-        return endpoints.stream()
-                .filter(endpoint -> equalsIgnoreInsideBrackets(endpoint.getPath(),path) && endpoint.getRequestType() == requestType)
-                .findFirst();
+    public EndpointInvoker getInvoker() {
+        return invoker;
     }
 
-    private static boolean equalsIgnoreInsideBrackets(String p1, String p2) {
-        if (p1 == null || p2 == null) {
-            return false;
-        }
+    public void setInvoker(EndpointInvoker invoker) {
+        this.invoker = invoker;
+    }
 
-        // Split both paths into their segments
-        String[] p1Segments = p1.split("/");
-        String[] p2Segments = p2.split("/");
+    public boolean isRequestScopeRequired() {
+        return requestScopeRequired;
+    }
 
-        // If the number of segments is different, the paths cannot match
-        if (p1Segments.length != p2Segments.length) {
-            return false;
-        }
+    public void setRequestScopeRequired(boolean requestScopeRequired) {
+        this.requestScopeRequired = requestScopeRequired;
+    }
 
-        // Compare each segment
-        for (int i = 0; i < p1Segments.length; i++) {
-            String segment1 = p1Segments[i];
-            String segment2 = p2Segments[i];
+    public String[] getPathVariableNames() {
+        return pathVariableNames;
+    }
 
-            // Ignore segments in p1 that are placeholders (e.g., "{variable}")
-            if (segment1.startsWith("{") && segment1.endsWith("}")) {
-                continue; // Skip comparison for placeholders
-            }
+    public Cacheable getCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return true if the endpoint is secured with {@code @PreAuthorize} or takes the {@link UserDetails}
+     */
+    public boolean isPrincipalRequired() {
+        return principalRequired;
+    }
 
-            // Compare fixed segments
-            if (!segment1.equals(segment2)) {
-                return false;
+    static boolean isPathVariable(String segment) {
+        return segment.startsWith("{") && segment.endsWith("}");
+    }
+
+    private static String[] parsePathVariableNames(String path) {
+        List<String> names = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (isPathVariable(segment)) {
+                names.add(segment.substring(1, segment.length() - 1));
             }
         }
-
-        // If all segments match or placeholders align, the paths are equal
-        return true;
+        return names.toArray(new String[0]);
     }
 
     @Override
@@ -0,0 +1,49 @@
+package org.example.framework.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invocation plan of an endpoint, compiled once when the endpoint is mapped.
+ * The handler method is bound to its controller bean and spread over an argument array,
+ * so a request only runs the already chosen resolvers and calls the handle.
+ */
+public class EndpointInvoker {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final MethodHandle handle;
+    private final ParameterResolver[] resolvers;
+
+    public EndpointInvoker(Object controller, Method method, ParameterResolver[] resolvers) {
+        this.resolvers = resolvers;
+        try {
+            method.setAccessible(true);
+            this.handle = MethodHandles.lookup().unreflect(method)
+                    .bindTo(controller)
+                    .asSpreader(Object[].class, resolvers.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access handler method " + method.getName(), e);
+        }
+    }
+
+    public Object invoke(HttpServletRequest req, HttpServletResponse resp, RouteMatch match) throws Exception {
+        Object[] args = resolvers.length == 0 ? NO_ARGS : new Object[resolvers.length];
+        for (int i = 0; i < resolvers.length; i++) {
+            args[i] = resolvers[i].resolve(req, resp, match);
+        }
+        try {
+            return (Object) handle.invokeExact(args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+}
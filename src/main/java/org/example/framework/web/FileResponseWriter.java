@@ -0,0 +1,308 @@
+package org.example.framework.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Globals;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.example.framework.core.annotations.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes files to the response without reading them into byte arrays: small files are served from a memory mapped
+ * cache, larger ones with Tomcat's sendfile or {@link FileChannel#transferTo}.
+ * Only sendfile keeps the bytes out of the JVM, the other paths still copy them into Tomcat's output buffer.
+ * Supports conditional requests (ETag, Last-Modified) and single byte ranges.
+ */
+@Component
+public class FileResponseWriter {
+    //files up to this size are mapped and kept, larger ones are streamed from disk on every request
+    static final long MAX_CACHED_FILE_SIZE = 256 * 1024;
+    static final long MAX_CACHE_SIZE = 64 * 1024 * 1024;
+    //bytes handed to transferTo per call
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private record MappedFile(MappedByteBuffer buffer, long lastModified) {
+    }
+
+    private record Range(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    //returned for range headers that are answered with the whole file, e.g. several ranges
+    private static final Range UNSUPPORTED_RANGE = new Range(0, -1);
+
+    //access ordered, the least recently served file is unmapped first
+    private final Map<Path, MappedFile> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long cacheSize;
+
+    /**
+     * Writes the file with the status, conditional and range headers are only honoured for a 200.
+     *
+     * @return false if the file does not exist or is not readable
+     */
+    public boolean write(Path file, int status, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return false;
+        }
+        if (!attributes.isRegularFile() || !Files.isReadable(file)) {
+            return false;
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "W/\"" + size + "-" + lastModified + "\"";
+
+        resp.setHeader("ETag", etag);
+        resp.setDateHeader("Last-Modified", lastModified);
+        resp.setHeader("Accept-Ranges", "bytes");
+        if (resp.getContentType() == null) {
+            resp.setContentType(getContentType(file, req));
+        }
+        if (status == HttpServletResponse.SC_OK && isNotModified(req, etag, lastModified)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+
+        Range range = new Range(0, size - 1);
+        if (status == HttpServletResponse.SC_OK && req.getHeader("Range") != null && isRangeValid(req, etag, lastModified)) {
+            Range requested = parseRange(req.getHeader("Range"), size);
+            if (requested == null) {
+                resp.setHeader("Content-Range", "bytes */" + size);
+                resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return true;
+            }
+            if (requested != UNSUPPORTED_RANGE) {
+                range = requested;
+                status = HttpServletResponse.SC_PARTIAL_CONTENT;
+                resp.setHeader("Content-Range", "bytes " + range.start() + "-" + range.end() + "/" + size);
+            }
+        }
+        resp.setStatus(status);
+        resp.setContentLengthLong(size == 0 ? 0 : range.length());
+        if (size == 0 || "HEAD".equals(req.getMethod())) {
+            return true;
+        }
+
+        if (size <= MAX_CACHED_FILE_SIZE) {
+            MappedFile mapped = getMapped(file, size, lastModified);
+            write(mapped.buffer().slice((int) range.start(), (int) range.length()), resp);
+        } else if (Boolean.TRUE.equals(req.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR)) && !req.isAsyncStarted()) {
+            //tomcat writes the file from the kernel after the servlet returns
+            req.setAttribute(Globals.SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            req.setAttribute(Globals.SENDFILE_FILE_START_ATTR, range.start());
+            req.setAttribute(Globals.SENDFILE_FILE_END_ATTR, range.end() + 1);
+        } else {
+            transfer(file, range, resp);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the bytes from the buffer's position to its limit, the buffer itself is left untouched.
+     */
+    public void write(ByteBuffer buffer, HttpServletResponse resp) throws IOException {
+        OutputStream out = resp.getOutputStream();
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        WritableByteChannel channel = newChannel(out);
+        ByteBuffer remaining = buffer.duplicate();
+        while (remaining.hasRemaining()) {
+            channel.write(remaining);
+        }
+    }
+
+    private void transfer(Path file, Range range, HttpServletResponse resp) throws IOException {
+        WritableByteChannel target = newChannel(resp.getOutputStream());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = range.start();
+            long end = range.end() + 1;
+            while (position < end) {
+                long transferred = channel.transferTo(position, Math.min(TRANSFER_CHUNK, end - position), target);
+                if (transferred <= 0) {
+                    //the file was truncated while it was served
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    //Channels.newChannel copies every chunk into a byte array first, Tomcat's stream takes the buffer itself
+    private static WritableByteChannel newChannel(OutputStream out) {
+        if (!(out instanceof CoyoteOutputStream coyote)) {
+            return Channels.newChannel(out);
+        }
+        return new WritableByteChannel() {
+            private boolean open = true;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                int length = src.remaining();
+                coyote.write(src);
+                src.position(src.limit());
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            //the response stream stays open, the container closes it
+            @Override
+            public void close() {
+                open = false;
+            }
+        };
+    }
+
+    private MappedFile getMapped(Path file, long size, long lastModified) throws IOException {
+        lock.lock();
+        try {
+            MappedFile mapped = cache.get(file);
+            if (mapped != null && mapped.lastModified() == lastModified && mapped.buffer().capacity() == size) {
+                return mapped;
+            }
+            if (mapped != null) {
+                cache.remove(file);
+                cacheSize -= mapped.buffer().capacity();
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = new MappedFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), lastModified);
+            }
+            cache.put(file, mapped);
+            cacheSize += size;
+            //the mapping is released once the buffer is garbage collected
+            Iterator<MappedFile> eldest = cache.values().iterator();
+            while (cacheSize > MAX_CACHE_SIZE && eldest.hasNext()) {
+                cacheSize -= eldest.next().buffer().capacity();
+                eldest.remove();
+            }
+            return mapped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String getContentType(Path file, HttpServletRequest req) {
+        String name = file.getFileName().toString();
+        String contentType = req.getServletContext().getMimeType(name);
+        if (contentType == null) {
+            contentType = URLConnection.guessContentTypeFromName(name);
+        }
+        return contentType != null ? contentType : "application/octet-stream";
+    }
+
+    private static boolean isNotModified(HttpServletRequest req, String etag, long lastModified) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            //If-Modified-Since is ignored when If-None-Match is sent
+            return matches(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = getDateHeader(req, "If-Modified-Since");
+        //http dates have second precision
+        return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    //a stale If-Range means the client's partial copy is outdated, it gets the whole file
+    private static boolean isRangeValid(HttpServletRequest req, String etag, long lastModified) {
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            //only a strong validator proves the parts fit together, weak ones like ours never match (RFC 7233 3.2)
+            return !ifRange.startsWith("W/") && !etag.startsWith("W/") && ifRange.equals(etag);
+        }
+        long date = getDateHeader(req, "If-Range");
+        return date != -1 && lastModified / 1000 == date / 1000;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            //weak comparison, W/"x" matches "x"
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(etag.substring(2))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getDateHeader(HttpServletRequest req, String name) {
+        try {
+            return req.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the single range requested, null if it cannot be satisfied
+     */
+    private static Range parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') != -1) {
+            return UNSUPPORTED_RANGE;
+        }
+        if (size == 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return UNSUPPORTED_RANGE;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                //suffix range, the last n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return UNSUPPORTED_RANGE;
+                }
+                if (start >= size) {
+                    return null;
+                }
+                end = Math.min(end, size - 1);
+            }
+            return new Range(start, end);
+        } catch (NumberFormatException e) {
+            return UNSUPPORTED_RANGE;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.framework.web;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Produces the argument for one handler parameter slot.
+ * Resolvers are chosen once per parameter when the endpoint is mapped.
+ */
+@FunctionalInterface
+public interface ParameterResolver {
+    Object resolve(HttpServletRequest req, HttpServletResponse resp, RouteMatch match) throws ServletException;
+}
@@ -0,0 +1,227 @@
+package org.example.framework.web;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of serialized responses, weighed by their size in bytes.
+ * <p>
+ * New responses enter a small LRU window. Leaving it they compete for the main area: a count-min sketch estimates
+ * how often each key was requested, and a response only displaces main entries requested less often than itself
+ * (W-TinyLFU admission). One-off requests therefore cannot flush the responses that are actually hot.
+ */
+public class ResponseCache {
+    //share of the capacity taken by the window
+    private static final int WINDOW_PERCENT = 1;
+    //rough per entry cost of the key, node and map entries on top of the body
+    private static final int ENTRY_OVERHEAD = 128;
+
+    public record CachedResponse(String contentType, Map<String, List<String>> headers, byte[] body, String etag, long expiresAt) {
+    }
+
+    private static final class Node {
+        private final String key;
+        private final CachedResponse response;
+        private final long weight;
+        private boolean inWindow = true;
+
+        private Node(String key, CachedResponse response) {
+            this.key = key;
+            this.response = response;
+            this.weight = response.body().length + 2L * key.length() + ENTRY_OVERHEAD;
+        }
+    }
+
+    //lookups do not lock, the orders below are maintained under the lock
+    private final Map<String, Node> data = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Node> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWindowSize;
+    private final long maxMainSize;
+    private long windowSize;
+    private long mainSize;
+    private final FrequencySketch sketch;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ResponseCache(long maxSize) {
+        this.maxWindowSize = Math.max(1, maxSize * WINDOW_PERCENT / 100);
+        this.maxMainSize = maxSize - maxWindowSize;
+        //a row has a counter per 256 bytes of capacity, enough to keep collisions between small responses rare
+        this.sketch = new FrequencySketch((int) Math.min(1 << 22, Math.max(1024, maxSize / 256)));
+    }
+
+    /**
+     * @return the response, null if it is not cached or expired
+     */
+    public CachedResponse get(String key) {
+        sketch.increment(key.hashCode());
+        Node node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.response.expiresAt() <= System.currentTimeMillis()) {
+            lock.lock();
+            try {
+                remove(node);
+            } finally {
+                lock.unlock();
+            }
+            return null;
+        }
+        //recency is best effort, a contended hit does not wait for the lock
+        if (lock.tryLock()) {
+            try {
+                (node.inWindow ? window : main).get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.response;
+    }
+
+    public void put(String key, CachedResponse response) {
+        Node node = new Node(key, response);
+        if (node.weight > maxMainSize) {
+            return;
+        }
+        lock.lock();
+        try {
+            Node previous = data.get(key);
+            if (previous != null) {
+                remove(previous);
+            }
+            data.put(key, node);
+            window.put(key, node);
+            windowSize += node.weight;
+            Iterator<Node> eldest = window.values().iterator();
+            while (windowSize > maxWindowSize && eldest.hasNext()) {
+                Node candidate = eldest.next();
+                eldest.remove();
+                windowSize -= candidate.weight;
+                admit(candidate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            main.clear();
+            windowSize = 0;
+            mainSize = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEntryCount() {
+        return data.size();
+    }
+
+    //bytes taken by the cached responses, estimated
+    public long getWeight() {
+        lock.lock();
+        try {
+            return windowSize + mainSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //moves the candidate leaving the window to the main area, or drops it if it is used less than what it would evict
+    private void admit(Node candidate) {
+        List<Node> victims = new ArrayList<>();
+        long freed = 0;
+        int frequency = sketch.frequency(candidate.key.hashCode());
+        long now = System.currentTimeMillis();
+        Iterator<Node> lru = main.values().iterator();
+        while (mainSize - freed + candidate.weight > maxMainSize && lru.hasNext()) {
+            Node victim = lru.next();
+            boolean expired = victim.response.expiresAt() <= now;
+            if (!expired && sketch.frequency(victim.key.hashCode()) >= frequency) {
+                data.remove(candidate.key, candidate);
+                return;
+            }
+            victims.add(victim);
+            freed += victim.weight;
+        }
+        for (Node victim : victims) {
+            remove(victim);
+        }
+        candidate.inWindow = false;
+        main.put(candidate.key, candidate);
+        mainSize += candidate.weight;
+    }
+
+    private void remove(Node node) {
+        if (!data.remove(node.key, node)) {
+            return;
+        }
+        if (node.inWindow) {
+            window.remove(node.key);
+            windowSize -= node.weight;
+        } else {
+            main.remove(node.key);
+            mainSize -= node.weight;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4 rows of counters saturating at 15. All counters are halved after 10 increments per
+     * counter of a row, so old popularity fades. Updates are not synchronized, a lost increment only makes the
+     * estimate slightly lower.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[] table;
+        private final int width;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int width) {
+            this.width = Integer.highestOneBit(width);
+            this.table = new byte[SEEDS.length * this.width];
+            this.sampleSize = 10 * this.width;
+        }
+
+        private void increment(int hash) {
+            for (int row = 0; row < SEEDS.length; row++) {
+                int index = index(hash, row);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < SEEDS.length; row++) {
+                frequency = Math.min(frequency, table[index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>= 1;
+            }
+            additions = 0;
+        }
+
+        private int index(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return row * width + ((int) h & (width - 1));
+        }
+    }
+}
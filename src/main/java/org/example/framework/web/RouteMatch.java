@@ -0,0 +1,30 @@
+package org.example.framework.web;
+
+public class RouteMatch {
+    private final Endpoint endpoint;
+    //captured "{var}" segments, in the order they appear in the endpoint path
+    private final String[] pathVariableValues;
+
+    RouteMatch(Endpoint endpoint, String[] pathVariableValues) {
+        this.endpoint = endpoint;
+        this.pathVariableValues = pathVariableValues;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public String getPathVariable(int index) {
+        return pathVariableValues[index];
+    }
+
+    public String getPathVariable(String name) {
+        String[] names = endpoint.getPathVariableNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return pathVariableValues[i];
+            }
+        }
+        return null;
+    }
+}
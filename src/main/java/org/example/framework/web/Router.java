@@ -0,0 +1,106 @@
+package org.example.framework.web;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Segment trie of all mapped endpoints, one root per {@link RequestType}.
+ * Literal segments are looked up in a hash map, "{var}" segments share a single wildcard child per node,
+ * so a lookup walks the request uri once and costs O(segments) regardless of the number of routes.
+ */
+public class Router {
+    private static final String[] NO_VALUES = new String[0];
+
+    private final Map<RequestType, RouteNode> roots = new EnumMap<>(RequestType.class);
+    private int maxPathVariables;
+
+    public void register(Endpoint endpoint) {
+        RouteNode node = roots.computeIfAbsent(endpoint.getRequestType(), type -> new RouteNode());
+        String path = endpoint.getPath();
+        int end = trimTrailingSlashes(path);
+        int from = skipLeadingSlash(path);
+        while (from < end) {
+            int slash = nextSlash(path, from, end);
+            String segment = path.substring(from, slash);
+            node = Endpoint.isPathVariable(segment) ? node.wildcardChild() : node.literalChild(segment);
+            from = slash + 1;
+        }
+        if (node.endpoint != null) {
+            throw new RuntimeException("Duplicate endpoint mapping for " + endpoint.getRequestType() + " " + path
+                    + " (already mapped to " + node.endpoint.getPath() + ")");
+        }
+        node.endpoint = endpoint;
+        maxPathVariables = Math.max(maxPathVariables, endpoint.getPathVariableNames().length);
+    }
+
+    public RouteMatch match(RequestType requestType, String path) {
+        RouteNode root = roots.get(requestType);
+        if (root == null || path == null) {
+            return null;
+        }
+        String[] values = maxPathVariables == 0 ? NO_VALUES : new String[maxPathVariables];
+        int end = trimTrailingSlashes(path);
+        int from = skipLeadingSlash(path);
+        Endpoint endpoint = from >= end ? root.endpoint : find(root, path, from, end, values, 0);
+        if (endpoint == null) {
+            return null;
+        }
+        return new RouteMatch(endpoint, values);
+    }
+
+    //literal children win over the wildcard, the wildcard is tried when the literal branch dead-ends
+    private Endpoint find(RouteNode node, String path, int from, int end, String[] values, int captured) {
+        int slash = nextSlash(path, from, end);
+        boolean last = slash >= end;
+
+        RouteNode literal = node.literalChildren.get(path.substring(from, slash));
+        if (literal != null) {
+            Endpoint endpoint = last ? literal.endpoint : find(literal, path, slash + 1, end, values, captured);
+            if (endpoint != null) {
+                return endpoint;
+            }
+        }
+
+        RouteNode wildcard = node.wildcardChild;
+        if (wildcard != null) {
+            values[captured] = path.substring(from, slash);
+            return last ? wildcard.endpoint : find(wildcard, path, slash + 1, end, values, captured + 1);
+        }
+        return null;
+    }
+
+    private static int nextSlash(String path, int from, int end) {
+        int slash = path.indexOf('/', from);
+        return slash < 0 || slash > end ? end : slash;
+    }
+
+    private static int skipLeadingSlash(String path) {
+        return !path.isEmpty() && path.charAt(0) == '/' ? 1 : 0;
+    }
+
+    private static int trimTrailingSlashes(String path) {
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return end;
+    }
+
+    private static class RouteNode {
+        private final Map<String, RouteNode> literalChildren = new HashMap<>();
+        private RouteNode wildcardChild;
+        private Endpoint endpoint;
+
+        private RouteNode literalChild(String segment) {
+            return literalChildren.computeIfAbsent(segment, s -> new RouteNode());
+        }
+
+        private RouteNode wildcardChild() {
+            if (wildcardChild == null) {
+                wildcardChild = new RouteNode();
+            }
+            return wildcardChild;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.framework.web;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.framework.core.annotations.Component;
+import org.example.framework.core.annotations.Inject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Serves the files below the static location, mapped next to the {@link DispatcherServlet}
+ * e.g. {@code /static/css/app.css} is {@code <location>/css/app.css}.
+ */
+@Component
+public class StaticResourceServlet extends HttpServlet {
+    @Inject
+    FileResponseWriter fileResponseWriter;
+
+    private Path location;
+
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String method = req.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            resp.setHeader("Allow", "GET, HEAD");
+            resp.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+        Path file = resolve(req.getPathInfo());
+        if (file == null || !fileResponseWriter.write(file, HttpServletResponse.SC_OK, req, resp)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            resp.getWriter().write("404 Not Found");
+        }
+    }
+
+    /**
+     * @return the file for the path, null if the path leaves the static location
+     */
+    private Path resolve(String path) {
+        if (path == null || path.isEmpty() || path.equals("/")) {
+            return null;
+        }
+        Path file = location.resolve(path.substring(1)).normalize();
+        return file.startsWith(location) ? file : null;
+    }
+
+    public void setLocation(Path location) {
+        this.location = location.toAbsolutePath().normalize();
+    }
+
+    public Path getLocation() {
+        return location;
+    }
+}
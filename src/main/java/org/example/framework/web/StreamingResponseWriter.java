@@ -0,0 +1,101 @@
+package org.example.framework.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.framework.util.JSONSerializer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Writes the elements of a streamed handler result one at a time, so a large export runs in constant memory.
+ * The format follows the Accept header: a json array by default, NDJSON or server-sent events.
+ */
+class StreamingResponseWriter {
+    //elements written between two flushes
+    static final int FLUSH_INTERVAL = 64;
+
+    enum Format {
+        JSON_ARRAY("application/json"),
+        NDJSON("application/x-ndjson"),
+        EVENT_STREAM("text/event-stream");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        static Format fromAccept(String accept) {
+            if (accept != null) {
+                if (accept.contains(EVENT_STREAM.contentType)) {
+                    return EVENT_STREAM;
+                }
+                if (accept.contains(NDJSON.contentType)) {
+                    return NDJSON;
+                }
+            }
+            return JSON_ARRAY;
+        }
+    }
+
+    private final JSONSerializer jsonSerializer;
+    private final Format format;
+    private final PrintWriter writer;
+    private int count;
+
+    StreamingResponseWriter(JSONSerializer jsonSerializer, String accept, HttpServletResponse resp) throws IOException {
+        this.jsonSerializer = jsonSerializer;
+        this.format = Format.fromAccept(accept);
+        resp.setContentType(format.contentType);
+        resp.setCharacterEncoding("UTF-8");
+        this.writer = resp.getWriter();
+        if (format == Format.JSON_ARRAY) {
+            writer.write('[');
+        }
+    }
+
+    /**
+     * @return false once the client is gone, the producer should stop
+     */
+    boolean write(Object element) throws IOException {
+        switch (format) {
+            case JSON_ARRAY -> {
+                if (count > 0) {
+                    writer.write(',');
+                }
+                jsonSerializer.serializeValue(element, writer);
+            }
+            case NDJSON -> {
+                jsonSerializer.serializeValue(element, writer);
+                writer.write('\n');
+            }
+            //json never contains a raw line break, one data line per event is enough
+            case EVENT_STREAM -> {
+                writer.write("data: ");
+                jsonSerializer.serializeValue(element, writer);
+                writer.write("\n\n");
+            }
+        }
+        count++;
+        //events are pushed as they happen, the other formats are flushed in batches
+        if (format == Format.EVENT_STREAM || count % FLUSH_INTERVAL == 0) {
+            return flush();
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the client is gone, the PrintWriter swallows the IOException
+     */
+    boolean flush() {
+        writer.flush();
+        return !writer.checkError();
+    }
+
+    void end() {
+        if (format == Format.JSON_ARRAY) {
+            writer.write(']');
+        }
+        flush();
+    }
+}
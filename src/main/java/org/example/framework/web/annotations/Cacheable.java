@@ -0,0 +1,29 @@
+package org.example.framework.web.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the serialized response of a GET endpoint, cached requests do not invoke the handler.
+ * Responses are keyed by the request path, so path variables are always part of the key.
+ * <p>
+ * Headers set while the response is written are cached and replayed with it. Empty results and responses setting a
+ * cookie are not cached, and the handler cannot take the {@code HttpServletResponse}.
+ * <p>
+ * Responses are shared between users, so the handler cannot take the {@code UserDetails} either. A response depending
+ * on the user's authorities only can use {@link #varyByAuthorities()}, per user responses must not be cached.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+    //seconds a response is served from the cache
+    long ttl() default 60;
+
+    //request parameters the response depends on, empty for all of them
+    String[] key() default {};
+
+    //true if the response depends on the user's authorities, users with the same authorities share an entry
+    boolean varyByAuthorities() default false;
+}
@@ -0,0 +1,88 @@
+package org.example.core;
+
+import org.example.app.Controller;
+import org.example.app.service.AuditTrail;
+import org.example.framework.core.IOContainer;
+import org.example.framework.security.session.HttpSessionService;
+import org.example.framework.security.session.SessionService;
+import org.example.framework.util.JSONSerializer;
+import org.example.framework.util.Serializator;
+import org.example.framework.web.DispatcherServlet;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IOContainerTest {
+    private static IOContainer container;
+
+    @BeforeAll
+    public static void init() {
+        container = IOContainer.getInstance();
+    }
+
+    @Test
+    public void testGetBeanByClass() {
+        JSONSerializer serializer = container.getBean(JSONSerializer.class);
+        assertNotNull(serializer);
+        assertSame(serializer, container.getBean(JSONSerializer.class));
+    }
+
+    @Test
+    public void testGetBeanByInterface() {
+        assertSame(container.getBean(JSONSerializer.class), container.getBean(Serializator.class));
+    }
+
+    @Test
+    public void testRegisteredNameWinsOverAssignableBeans() {
+        //both the scanned HttpSessionService and the default SessionService implement the interface
+        assertEquals(2, container.getBeansOfType(SessionService.class).size());
+        assertInstanceOf(HttpSessionService.class, container.getBean(SessionService.class));
+    }
+
+    @Test
+    public void testGetBeansOfType() {
+        List<Object> beans = container.getBeansOfType(Object.class);
+        assertTrue(beans.contains(container.getBean(DispatcherServlet.class)));
+        assertTrue(container.getBeansOfType(Runnable.class).isEmpty());
+    }
+
+    @Test
+    public void testBeansSnapshotIsImmutable() {
+        Map<String, Object> beans = container.getBeans();
+        assertThrows(UnsupportedOperationException.class, () -> beans.put("bean", new Object()));
+    }
+
+    @Test
+    public void testRegisterAndRemoveBean() {
+        Map<String, Object> before = container.getBeans();
+        StringBuilder bean = new StringBuilder("registered");
+        container.registerBean(bean);
+        try {
+            assertSame(bean, container.getBean(StringBuilder.class));
+            assertTrue(container.getBeansOfType(CharSequence.class).contains(bean));
+            //earlier snapshots are not changed
+            assertFalse(before.containsKey(StringBuilder.class.getName()));
+        } finally {
+            container.removeBean(StringBuilder.class.getName());
+        }
+        assertThrows(RuntimeException.class, () -> container.getBean(StringBuilder.class));
+    }
+
+    @Test
+    public void testNeedsRequestScope() {
+        assertTrue(container.needsRequestScope(AuditTrail.class));
+        //the controller reaches the session service only, HttpSessionService does not write to the response
+        assertFalse(container.needsRequestScope(Controller.class));
+        assertFalse(container.needsRequestScope(JSONSerializer.class));
+        assertFalse(container.needsRequestScope(Runnable.class));
+    }
+
+    @Test
+    public void testMissingBean() {
+        assertThrows(RuntimeException.class, () -> container.getBean(Runnable.class));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.security;
+
+import org.example.framework.security.user.Authority;
+import org.example.framework.security.user.AuthoritySet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthoritySetTest {
+    @Test
+    public void testInterning() {
+        Authority first = Authority.intern("ROLE_TEST_INTERN");
+        assertSame(first, Authority.intern("ROLE_TEST_INTERN"));
+        assertEquals(first.getId(), new Authority("ROLE_TEST_INTERN").getId());
+        assertNotEquals(first.getId(), Authority.intern("ROLE_TEST_OTHER").getId());
+    }
+
+    @Test
+    public void testIntersects() {
+        AuthoritySet user = new AuthoritySet();
+        user.add(Authority.intern("ROLE_TEST_USER"));
+        AuthoritySet endpoint = new AuthoritySet();
+        endpoint.add(Authority.intern("ROLE_TEST_ADMIN"));
+        assertFalse(user.intersects(endpoint));
+
+        endpoint.add(Authority.intern("ROLE_TEST_USER"));
+        assertTrue(user.intersects(endpoint));
+        assertTrue(endpoint.intersects(user));
+    }
+
+    @Test
+    public void testBeyondFirstWord() {
+        List<Authority> authorities = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            authorities.add(Authority.intern("ROLE_TEST_" + i));
+        }
+        AuthoritySet user = new AuthoritySet();
+        user.add(authorities.get(199));
+        AuthoritySet endpoint = new AuthoritySet();
+        endpoint.add(authorities.get(0));
+        assertFalse(user.intersects(endpoint));
+        endpoint.add(authorities.get(199));
+        assertTrue(user.intersects(endpoint));
+        assertTrue(endpoint.contains(authorities.get(199)));
+        assertFalse(endpoint.contains(authorities.get(100)));
+    }
+
+    @Test
+    public void testSetOperations() {
+        AuthoritySet set = new AuthoritySet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(new Authority("ROLE_TEST_A")));
+        assertFalse(set.add(Authority.intern("ROLE_TEST_A")));
+        set.add(Authority.intern("ROLE_TEST_B"));
+        assertEquals(2, set.size());
+        assertEquals(Set.of(new Authority("ROLE_TEST_A"), new Authority("ROLE_TEST_B")), set);
+
+        assertTrue(set.remove(new Authority("ROLE_TEST_A")));
+        assertFalse(set.contains(Authority.intern("ROLE_TEST_A")));
+        set.removeIf(authority -> authority.getName().equals("ROLE_TEST_B"));
+        assertTrue(set.isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.security;
+
+import org.example.framework.security.session.OffHeapSessionStore;
+import org.example.framework.security.session.SessionStoreMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapSessionStoreTest {
+    private static byte[] data(int length, long seed) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        try (OffHeapSessionStore store = new OffHeapSessionStore(64 * 1024, 60_000)) {
+            byte[] small = data(10, 1);
+            byte[] large = data(1000, 2);
+            store.save("small", small);
+            store.save("large", large);
+            store.save("empty", new byte[0]);
+            assertArrayEquals(small, store.load("small"));
+            assertArrayEquals(large, store.load("large"));
+            assertArrayEquals(new byte[0], store.load("empty"));
+            assertNull(store.load("missing"));
+
+            SessionStoreMetrics metrics = store.getMetrics();
+            assertEquals(3, metrics.liveSessions());
+            //1 + 4 + 1 blocks of 256 bytes
+            assertEquals(6 * 256, metrics.bytesUsed());
+            assertEquals(64 * 1024, metrics.capacity());
+        }
+    }
+
+    @Test
+    public void testOverwriteAndRemoveReleaseBlocks() {
+        try (OffHeapSessionStore store = new OffHeapSessionStore(64 * 1024, 60_000)) {
+            store.save("session", data(1000, 1));
+            byte[] replaced = data(300, 2);
+            store.save("session", replaced);
+            assertArrayEquals(replaced, store.load("session"));
+            assertEquals(2 * 256, store.getMetrics().bytesUsed());
+
+            store.remove("session");
+            assertNull(store.load("session"));
+            assertEquals(0, store.getMetrics().liveSessions());
+            assertEquals(0, store.getMetrics().bytesUsed());
+        }
+    }
+
+    @Test
+    public void testFull() {
+        try (OffHeapSessionStore store = new OffHeapSessionStore(1024, 60_000)) {
+            store.save("first", data(768, 1));
+            assertThrows(RuntimeException.class, () -> store.save("second", data(512, 2)));
+            //growing into its own blocks still fits
+            store.save("first", data(1024, 3));
+            assertEquals(1, store.getMetrics().liveSessions());
+        }
+    }
+
+    @Test
+    public void testExpiry() {
+        //a fake clock, scheduling delays of a slow machine cannot expire the active session
+        AtomicLong now = new AtomicLong(1_000_000);
+        try (OffHeapSessionStore store = new OffHeapSessionStore(64 * 1024, 1000, now::get)) {
+            store.save("idle", data(10, 1));
+            store.save("active", data(10, 2));
+            for (int i = 0; i < 6; i++) {
+                now.addAndGet(500);
+                assertNotNull(store.load("active"));
+                store.expire();
+            }
+            assertNull(store.load("idle"));
+            SessionStoreMetrics metrics = store.getMetrics();
+            //the wheel evicted it, loading an expired session does not
+            assertEquals(1, metrics.liveSessions());
+            assertEquals(1, metrics.evictions());
+            assertTrue(metrics.evictionsPerSecond() > 0);
+
+            now.addAndGet(1500);
+            store.expire();
+            assertEquals(0, store.getMetrics().liveSessions());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.framework.core.RequestScope;
+import org.example.framework.security.config.HttpSecurityConfig;
+import org.example.framework.security.session.OffHeapSessionStore;
+import org.example.framework.security.session.StoreSessionService;
+import org.example.framework.security.user.Authority;
+import org.example.framework.security.user.UserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StoreSessionServiceTest {
+    private OffHeapSessionStore store;
+    private StoreSessionService sessionService;
+
+    @BeforeEach
+    public void init() {
+        HttpSecurityConfig config = new HttpSecurityConfig();
+        store = new OffHeapSessionStore(config);
+        sessionService = new StoreSessionService(store, config);
+    }
+
+    @AfterEach
+    public void destroy() {
+        store.close();
+    }
+
+    //a request carrying the cookie, attributes set on it are kept like a servlet container would
+    private static HttpServletRequest request(Cookie cookie) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        Map<String, Object> attributes = new HashMap<>();
+        when(request.getCookies()).thenReturn(cookie == null ? null : new Cookie[]{cookie});
+        when(request.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(request).setAttribute(anyString(), any());
+        return request;
+    }
+
+    private Cookie login(UserDetails user) {
+        HttpServletRequest request = request(null);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        RequestScope scope = RequestScope.begin(request, response);
+        try {
+            sessionService.createSession(request, user);
+        } finally {
+            scope.end();
+        }
+        ArgumentCaptor<Cookie> cookie = ArgumentCaptor.forClass(Cookie.class);
+        verify(response).addCookie(cookie.capture());
+        return cookie.getValue();
+    }
+
+    @Test
+    public void testLogin() {
+        UserDetails user = new UserDetails();
+        user.setName("user");
+        user.getAuthorities().add(Authority.intern("ROLE_USER"));
+        Cookie cookie = login(user);
+        assertEquals(StoreSessionService.COOKIE_NAME, cookie.getName());
+
+        UserDetails loaded = sessionService.getUserDetailsFromSession(request(cookie));
+        assertEquals("user", loaded.getName());
+        assertTrue(loaded.getAuthorities().contains(Authority.intern("ROLE_USER")));
+        assertEquals(1, sessionService.getMetrics().liveSessions());
+        assertNull(sessionService.getUserDetailsFromSession(request(new Cookie(StoreSessionService.COOKIE_NAME, "unknown"))));
+    }
+
+    @Test
+    public void testAttributes() {
+        UserDetails user = new UserDetails();
+        user.setName("user");
+        Cookie cookie = login(user);
+        sessionService.setAttribute(request(cookie), "cart", 3);
+        assertEquals(3, sessionService.getAttribute(request(cookie), "cart"));
+        assertThrows(RuntimeException.class, () -> sessionService.setAttribute(request(cookie), "stream", new Object()));
+        //a serializable bean would still lose the changes made after it was stored
+        assertFalse(sessionService.supportsSessionScopedBean(Integer.class));
+
+        sessionService.invalidateSession(request(cookie));
+        assertNull(sessionService.getAttribute(request(cookie), "cart"));
+        assertEquals(0, sessionService.getMetrics().liveSessions());
+    }
+}
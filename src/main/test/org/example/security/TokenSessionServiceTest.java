@@ -0,0 +1,122 @@
+package org.example.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.framework.core.RequestScope;
+import org.example.framework.security.config.HttpSecurityConfig;
+import org.example.framework.security.session.TokenSessionService;
+import org.example.framework.security.user.Authority;
+import org.example.framework.security.user.UserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenSessionServiceTest {
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private TokenSessionService sessionService;
+
+    @BeforeEach
+    public void init() {
+        sessionService = new TokenSessionService(new HttpSecurityConfig().setTokenSecret(SECRET));
+    }
+
+    private static UserDetails user() {
+        UserDetails user = new UserDetails();
+        user.setName("user");
+        user.getAuthorities().add(Authority.intern("ROLE_USER"));
+        user.getAuthorities().add(Authority.intern("ROLE_ADMIN"));
+        return user;
+    }
+
+    private static HttpServletRequest withHeader(String token) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        return request;
+    }
+
+    @Test
+    public void testBearerToken() {
+        String token = sessionService.createToken(user());
+        UserDetails user = sessionService.getUserDetailsFromSession(withHeader(token));
+        assertNotNull(user);
+        assertEquals("user", user.getName());
+        assertEquals(Set.of(Authority.intern("ROLE_USER"), Authority.intern("ROLE_ADMIN")), user.getAuthorities());
+        //served from the cache the second time
+        assertSame(user, sessionService.getUserDetailsFromSession(withHeader(token)));
+    }
+
+    @Test
+    public void testAnyNodeWithTheSecretAcceptsTheToken() {
+        String token = sessionService.createToken(user());
+        TokenSessionService otherNode = new TokenSessionService(new HttpSecurityConfig().setTokenSecret(SECRET));
+        assertEquals("user", otherNode.getUserDetailsFromSession(withHeader(token)).getName());
+
+        byte[] otherSecret = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8);
+        TokenSessionService otherApplication = new TokenSessionService(new HttpSecurityConfig().setTokenSecret(otherSecret));
+        assertNull(otherApplication.getUserDetailsFromSession(withHeader(token)));
+    }
+
+    @Test
+    public void testTamperedToken() {
+        String token = sessionService.createToken(user());
+        String other = sessionService.createToken(new UserDetails() {{
+            setName("admin");
+        }});
+        String forged = other.substring(0, other.indexOf('.')) + token.substring(token.indexOf('.'));
+        assertNull(sessionService.getUserDetailsFromSession(withHeader(forged)));
+        assertNull(sessionService.getUserDetailsFromSession(withHeader("garbage")));
+        assertNull(sessionService.getUserDetailsFromSession(withHeader("a.b")));
+    }
+
+    @Test
+    public void testExpiredToken() {
+        TokenSessionService expiring = new TokenSessionService(new HttpSecurityConfig().setTokenSecret(SECRET).setSessionTimeout(-1));
+        assertNull(expiring.getUserDetailsFromSession(withHeader(expiring.createToken(user()))));
+    }
+
+    @Test
+    public void testCookie() {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        RequestScope scope = RequestScope.begin(request, response);
+        try {
+            sessionService.createSession(request, user());
+        } finally {
+            scope.end();
+        }
+        ArgumentCaptor<Cookie> cookie = ArgumentCaptor.forClass(Cookie.class);
+        verify(response).addCookie(cookie.capture());
+        assertEquals("MYSPRING_TOKEN", cookie.getValue().getName());
+        assertTrue(cookie.getValue().isHttpOnly());
+
+        HttpServletRequest next = mock(HttpServletRequest.class);
+        when(next.getCookies()).thenReturn(new Cookie[]{cookie.getValue()});
+        assertEquals("user", sessionService.getUserDetailsFromSession(next).getName());
+    }
+
+    @Test
+    public void testSecretIsRequired() {
+        assertThrows(RuntimeException.class, () -> new TokenSessionService(new HttpSecurityConfig()));
+    }
+
+    @Test
+    public void testSessionAttributesAreUnsupported() {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        assertNull(sessionService.getAttribute(request, "name"));
+        assertThrows(UnsupportedOperationException.class, () -> sessionService.setAttribute(request, "name", "value"));
+        assertFalse(sessionService.supportsSessionScopedBean(String.class));
+    }
+
+    @Test
+    public void testCookieNameWithSessionTimeoutConstructor() {
+        HttpSecurityConfig config = new HttpSecurityConfig(null, 60).setTokenSecret(SECRET);
+        assertEquals("MYSPRING_TOKEN", config.getTokenCookieName());
+    }
+}
@@ -8,7 +8,9 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -331,4 +333,102 @@ public class JSONTest {
         assertEquals("Meeting", event.name);
         assertEquals(new java.util.Date(0), event.date);
     }
+
+    static class Team implements Serializable {
+        private String name;
+        private List<PersonWithAddress> members;
+        private int[] scores;
+
+        public Team() {
+        }
+    }
+
+    @Test
+    public void testFromJsonWithEscapedQuotes() {
+        String json = "{\"name\":\"John \\\"Johnny\\\" Doe, \\u00e9\",\"age\":30}";
+
+        Person person = jsonSerializer.deserialize(json, Person.class);
+
+        assertEquals("John \"Johnny\" Doe, \u00e9", person.name);
+        assertEquals(30, person.age);
+    }
+
+    @Test
+    public void testFromJsonWithNestedCollectionsAndWhiteSpace() {
+        String json = """
+                {
+                    "name" : "Team A",
+                    "unknown" : {"ignored": [1, 2, {"x": "y"}]},
+                    "members" : [
+                        {"name": "John", "address": {"street": "Main St", "city": "Anytown"}},
+                        {"name": "Jane", "address": null}
+                    ],
+                    "scores" : [1, 2, 3]
+                }
+                """;
+
+        Team team = jsonSerializer.deserialize(json, Team.class);
+
+        assertEquals("Team A", team.name);
+        assertEquals(2, team.members.size());
+        assertEquals("Anytown", team.members.get(0).address.city);
+        assertEquals("Jane", team.members.get(1).name);
+        assertNull(team.members.get(1).address);
+        assertArrayEquals(new int[]{1, 2, 3}, team.scores);
+    }
+
+    @Test
+    public void testFromJsonWithTrailingContent() {
+        String json = "{\"name\":\"John\"}}";
+
+        assertThrows(RuntimeException.class, () -> jsonSerializer.deserialize(json, Person.class));
+    }
+
+    @Test
+    public void testToJsonEscapesStrings() {
+        Person person = new Person("John \"Johnny\" \\ Doe\n", 30);
+
+        String expectedJson = "{\"name\":\"John \\\"Johnny\\\" \\\\ Doe\\n\",\"age\":30}";
+
+        assertEquals(expectedJson, jsonSerializer.serialize(person));
+        assertEquals(person.name, jsonSerializer.deserialize(expectedJson, Person.class).name);
+    }
+
+    @Test
+    public void testToJsonStreamsIntoWriter() throws IOException {
+        List<Person> people = List.of(new Person("John", 30), new Person("Jane", null));
+        StringWriter writer = new StringWriter();
+
+        jsonSerializer.serialize(people, writer);
+
+        assertEquals("[{\"name\":\"John\",\"age\":30},{\"name\":\"Jane\",\"age\":null}]", writer.toString());
+    }
+
+    static class Primitives implements Serializable {
+        private int count;
+        private long total;
+        private double ratio;
+        private boolean enabled;
+        private short small;
+
+        public Primitives() {
+        }
+    }
+
+    @Test
+    public void testFromJsonWithPrimitiveFields() {
+        String json = "{\"count\":\"12\",\"total\":-9000000000,\"ratio\":0.25,\"enabled\":TRUE,\"small\":3}";
+
+        Primitives primitives = jsonSerializer.deserialize(json, Primitives.class);
+
+        assertEquals(12, primitives.count);
+        assertEquals(-9000000000L, primitives.total);
+        assertEquals(0.25, primitives.ratio);
+        assertTrue(primitives.enabled);
+        assertEquals(3, primitives.small);
+
+        Primitives nulls = jsonSerializer.deserialize("{\"count\":null,\"enabled\":null}", Primitives.class);
+        assertEquals(0, nulls.count);
+        assertFalse(nulls.enabled);
+    }
 }
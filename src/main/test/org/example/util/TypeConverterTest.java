@@ -118,4 +118,27 @@ class TypeConverterTest {
         Optional<?> result = typeConverterRegistry.convert("unsupported", Void.class);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void testRegisterAndRemoveConverter() {
+        assertFalse(typeConverterRegistry.hasConverter(String.class, StringBuilder.class));
+
+        typeConverterRegistry.registerConverter(String.class, StringBuilder.class, StringBuilder::new);
+        Optional<StringBuilder> result = typeConverterRegistry.convert("abc", StringBuilder.class);
+        assertTrue(result.isPresent());
+        assertEquals("abc", result.get().toString());
+
+        typeConverterRegistry.removeConverter(String.class, StringBuilder.class);
+        assertFalse(typeConverterRegistry.hasConverter(String.class, StringBuilder.class));
+        assertTrue(typeConverterRegistry.convert("abc", StringBuilder.class).isEmpty());
+        // other converters from the same source are untouched
+        assertTrue(typeConverterRegistry.hasConverter(String.class, Integer.class));
+    }
+
+    @Test
+    void testRegisterConverterReplacesExisting() {
+        typeConverterRegistry.registerConverter(String.class, Integer.class, s -> 7);
+
+        assertEquals(7, typeConverterRegistry.convert("123", Integer.class).get());
+    }
 }
@@ -0,0 +1,64 @@
+package org.example.web;
+
+import org.example.framework.web.ResponseCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+    private static ResponseCache.CachedResponse response(int size, long ttl) {
+        return new ResponseCache.CachedResponse("text/plain", Map.of(), new byte[size], "\"" + size + "\"", System.currentTimeMillis() + ttl);
+    }
+
+    @Test
+    public void testGetAndExpiry() {
+        ResponseCache cache = new ResponseCache(1024 * 1024);
+        ResponseCache.CachedResponse response = response(100, 60_000);
+        cache.put("/a", response);
+        assertSame(response, cache.get("/a"));
+        assertNull(cache.get("/b"));
+
+        cache.put("/expired", response(100, -1));
+        assertNull(cache.get("/expired"));
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testSizeBound() {
+        ResponseCache cache = new ResponseCache(100 * 1024);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("/" + i, response(1024, 60_000));
+        }
+        assertTrue(cache.getWeight() <= 100 * 1024);
+        //larger than the whole cache
+        cache.put("/huge", response(200 * 1024, 60_000));
+        assertNull(cache.get("/huge"));
+    }
+
+    @Test
+    public void testFrequentlyUsedResponsesSurviveScans() {
+        ResponseCache cache = new ResponseCache(100 * 1024);
+        for (int i = 0; i < 50; i++) {
+            cache.put("/hot/" + i, response(1024, 60_000));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertNotNull(cache.get("/hot/" + i));
+            }
+        }
+        //a scan of one-off requests, each seen once
+        for (int i = 0; i < 1000; i++) {
+            cache.get("/scan/" + i);
+            cache.put("/scan/" + i, response(1024, 60_000));
+        }
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("/hot/" + i) != null) {
+                hot++;
+            }
+        }
+        assertEquals(50, hot);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.web;
+
+import org.example.framework.web.Endpoint;
+import org.example.framework.web.RequestType;
+import org.example.framework.web.RouteMatch;
+import org.example.framework.web.Router;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouterTest {
+    private Router router;
+    private Method method;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        router = new Router();
+        method = Object.class.getMethod("toString");
+    }
+
+    private Endpoint register(RequestType requestType, String path) {
+        Endpoint endpoint = new Endpoint(method, Object.class, requestType, path);
+        router.register(endpoint);
+        return endpoint;
+    }
+
+    @Test
+    void testLiteralMatch() {
+        Endpoint test = register(RequestType.GET, "/test");
+        register(RequestType.GET, "/testParam");
+
+        RouteMatch match = router.match(RequestType.GET, "/test");
+        assertNotNull(match);
+        assertSame(test, match.getEndpoint());
+    }
+
+    @Test
+    void testNoMatch() {
+        register(RequestType.GET, "/test");
+
+        assertNull(router.match(RequestType.GET, "/other"));
+        assertNull(router.match(RequestType.GET, "/test/more"));
+        assertNull(router.match(RequestType.POST, "/test"));
+    }
+
+    @Test
+    void testPathVariablesAreCaptured() {
+        Endpoint endpoint = register(RequestType.GET, "/users/{userId}/orders/{orderId}");
+
+        RouteMatch match = router.match(RequestType.GET, "/users/42/orders/7");
+        assertNotNull(match);
+        assertSame(endpoint, match.getEndpoint());
+        assertEquals("42", match.getPathVariable("userId"));
+        assertEquals("7", match.getPathVariable("orderId"));
+        assertEquals("7", match.getPathVariable(1));
+        assertNull(match.getPathVariable("missing"));
+    }
+
+    @Test
+    void testLiteralWinsOverPathVariable() {
+        Endpoint literal = register(RequestType.GET, "/users/me");
+        Endpoint variable = register(RequestType.GET, "/users/{id}");
+
+        assertSame(literal, router.match(RequestType.GET, "/users/me").getEndpoint());
+        assertSame(variable, router.match(RequestType.GET, "/users/5").getEndpoint());
+    }
+
+    @Test
+    void testBacktracksToPathVariable() {
+        register(RequestType.GET, "/users/me/settings");
+        Endpoint variable = register(RequestType.GET, "/users/{id}/orders");
+
+        RouteMatch match = router.match(RequestType.GET, "/users/me/orders");
+        assertNotNull(match);
+        assertSame(variable, match.getEndpoint());
+        assertEquals("me", match.getPathVariable("id"));
+    }
+
+    @Test
+    void testTrailingSlashAndRoot() {
+        Endpoint root = register(RequestType.GET, "/");
+        Endpoint test = register(RequestType.GET, "/test");
+
+        assertSame(root, router.match(RequestType.GET, "/").getEndpoint());
+        assertSame(test, router.match(RequestType.GET, "/test/").getEndpoint());
+    }
+
+    @Test
+    void testSamePathDifferentRequestTypes() {
+        Endpoint get = register(RequestType.GET, "/item");
+        Endpoint post = register(RequestType.POST, "/item");
+
+        assertSame(get, router.match(RequestType.GET, "/item").getEndpoint());
+        assertSame(post, router.match(RequestType.POST, "/item").getEndpoint());
+    }
+
+    @Test
+    void testDuplicateMappingIsRejected() {
+        register(RequestType.GET, "/items/{id}");
+
+        assertThrows(RuntimeException.class, () -> register(RequestType.GET, "/items/{name}"));
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.web;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.example.framework.ApplicationConfig;
+import org.example.framework.MySpringApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+public class StaticResourceTest {
+    private static MySpringApplication application;
+    //owned by the test, holds the static location and a file next to it
+    private static Path root;
+    private static Path location;
+    private static byte[] large;
+
+    @BeforeAll
+    public static void init() throws IOException {
+        RestAssured.baseURI = "http://localhost:8080";
+        root = Files.createTempDirectory("static-test");
+        location = root.resolve("static");
+        Files.createDirectories(location.resolve("css"));
+        Files.writeString(location.resolve("css/app.css"), "body { margin: 0; }");
+        //above the mapped cache limit, served with sendfile
+        large = new byte[1024 * 1024];
+        new Random(42).nextBytes(large);
+        Files.write(location.resolve("large.bin"), large);
+        Files.writeString(root.resolve("secret.txt"), "secret");
+        application = MySpringApplication.start(new ApplicationConfig().setStaticLocation(location));
+    }
+
+    @AfterAll
+    public static void destroy() throws IOException {
+        application.shutdown();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testSmallFile() {
+        given()
+                .when()
+                .get("/static/css/app.css")
+                .then()
+                .statusCode(200)
+                .contentType("text/css")
+                .header("Accept-Ranges", "bytes")
+                .body(equalTo("body { margin: 0; }"));
+    }
+
+    @Test
+    public void testLargeFile() {
+        byte[] body = given()
+                .when()
+                .get("/static/large.bin")
+                .then()
+                .statusCode(200)
+                .extract().asByteArray();
+        Assertions.assertArrayEquals(large, body);
+    }
+
+    @Test
+    public void testRange() {
+        byte[] body = given()
+                .header("Range", "bytes=1000-1999")
+                .when()
+                .get("/static/large.bin")
+                .then()
+                .statusCode(206)
+                .header("Content-Range", "bytes 1000-1999/" + large.length)
+                .extract().asByteArray();
+        Assertions.assertArrayEquals(Arrays.copyOfRange(large, 1000, 2000), body);
+    }
+
+    @Test
+    public void testSuffixRangeOfCachedFile() {
+        given()
+                .header("Range", "bytes=-3")
+                .when()
+                .get("/static/css/app.css")
+                .then()
+                .statusCode(206)
+                .body(equalTo("; }"));
+    }
+
+    @Test
+    public void testUnsatisfiableRange() {
+        given()
+                .header("Range", "bytes=5000000-")
+                .when()
+                .get("/static/large.bin")
+                .then()
+                .statusCode(416)
+                .header("Content-Range", "bytes */" + large.length);
+    }
+
+    @Test
+    public void testETag() {
+        Response response = given().when().get("/static/css/app.css");
+        String etag = response.getHeader("ETag");
+        Assertions.assertNotNull(etag);
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/static/css/app.css")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    public void testLastModified() {
+        String lastModified = given().when().get("/static/large.bin").getHeader("Last-Modified");
+        given()
+                .header("If-Modified-Since", lastModified)
+                .when()
+                .get("/static/large.bin")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    public void testStaleIfRangeSendsWholeFile() {
+        given()
+                .header("Range", "bytes=0-9")
+                .header("If-Range", "W/\"0-0\"")
+                .when()
+                .get("/static/css/app.css")
+                .then()
+                .statusCode(200)
+                .body(equalTo("body { margin: 0; }"));
+    }
+
+    @Test
+    public void testWeakIfRangeSendsWholeFile() {
+        String etag = given().when().get("/static/css/app.css").getHeader("ETag");
+        given()
+                .header("Range", "bytes=0-3")
+                .header("If-Range", etag)
+                .when()
+                .get("/static/css/app.css")
+                .then()
+                .statusCode(200)
+                .body(equalTo("body { margin: 0; }"));
+    }
+
+    @Test
+    public void testIfRangeDateMustMatchExactly() {
+        String lastModified = given().when().get("/static/css/app.css").getHeader("Last-Modified");
+        given()
+                .header("Range", "bytes=0-3")
+                .header("If-Range", lastModified)
+                .when()
+                .get("/static/css/app.css")
+                .then()
+                .statusCode(206)
+                .body(equalTo("body"));
+        given()
+                .header("Range", "bytes=0-3")
+                .header("If-Range", "Fri, 31 Dec 2100 23:59:59 GMT")
+                .when()
+                .get("/static/css/app.css")
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    public void testHead() {
+        given()
+                .when()
+                .head("/static/large.bin")
+                .then()
+                .statusCode(200)
+                .header("Content-Length", String.valueOf(large.length));
+    }
+
+    @Test
+    public void testNotFound() {
+        given().when().get("/static/missing.css").then().statusCode(404);
+        given().when().get("/static/css").then().statusCode(404);
+        given().urlEncodingEnabled(false).when().get("/static/%2e%2e/secret.txt").then().statusCode(404);
+    }
+
+    @Test
+    public void testMethodNotAllowed() {
+        given().when().post("/static/css/app.css").then().statusCode(405);
+    }
+
+    @Test
+    public void testDispatcherStillServesControllers() {
+        given().when().get("/test").then().statusCode(200).body(equalTo("test success!"));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.web;
+
+import org.example.framework.ApplicationConfig;
+import org.example.framework.MySpringApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares Tomcat's platform thread pool with virtual threads for handlers that block.
+ * Run with -Dbenchmark=true, it takes a few seconds and prints its results.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VirtualThreadBenchmarkTest {
+    private static final int CONCURRENT_REQUESTS = 2000;
+    private static final int BLOCKING_MILLIS = 200;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void comparePlatformAndVirtualThreads() throws Exception {
+        long platform = benchmark(false);
+        long virtual = benchmark(true);
+        System.out.printf("%d concurrent requests blocking %dms: platform threads %dms, virtual threads %dms%n",
+                CONCURRENT_REQUESTS, BLOCKING_MILLIS, platform, virtual);
+        assertTrue(virtual < platform, "virtual threads should not be limited by the worker pool size");
+    }
+
+    //best of a few rounds, the first one warms up connections and code
+    private long benchmark(boolean virtualThreads) throws Exception {
+        MySpringApplication application = MySpringApplication.start(new ApplicationConfig().setVirtualThreads(virtualThreads));
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/testBlocking?millis=" + BLOCKING_MILLIS)).build();
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+                for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                    responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+                }
+                for (CompletableFuture<HttpResponse<String>> response : responses) {
+                    assertEquals(200, response.get().statusCode());
+                }
+                best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+            }
+            return best;
+        } finally {
+            clientExecutor.shutdown();
+            application.shutdown();
+        }
+    }
+}
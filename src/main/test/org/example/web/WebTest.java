@@ -57,6 +57,255 @@ public class WebTest {
                 .body(equalTo("test success!"));
     }
 
+    @Test
+    public void testRequestScopedBean() {
+        //same instance for both parameters, reset before the next request reuses it
+        for (int i = 0; i < 3; i++) {
+            given()
+                    .when()
+                    .get("/testRequestScope")
+                    .then()
+                    .statusCode(200)
+                    .body(equalTo("first,second"));
+        }
+    }
+
+    @Test
+    public void testAsyncResult() {
+        given()
+                .queryParam("millis", 50)
+                .when()
+                .get("/testAsync")
+                .then()
+                .statusCode(200)
+                .body(equalTo("async after 50"));
+    }
+
+    @Test
+    public void testAsyncResponseEntity() {
+        given()
+                .when()
+                .get("/testAsyncEntity")
+                .then()
+                .statusCode(201)
+                .contentType(ContentType.JSON)
+                .body("fieldB1", equalTo("async b"))
+                .body("fieldB2", equalTo(7));
+    }
+
+    @Test
+    public void testAsyncRequestScopedBean() {
+        //the request's instance is still current when the result is written
+        for (int i = 0; i < 3; i++) {
+            given()
+                    .when()
+                    .get("/testAsyncRequestScope")
+                    .then()
+                    .statusCode(200)
+                    .body(equalTo("[\"handler,written\"]"));
+        }
+    }
+
+    @Test
+    public void testAsyncError() {
+        given()
+                .when()
+                .get("/testAsyncError")
+                .then()
+                .statusCode(500)
+                .body(equalTo("Error: async failure"));
+    }
+
+    @Test
+    public void testStreamAsJsonArray() {
+        given()
+                .queryParam("count", 200)
+                .when()
+                .get("/testStream")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("size()", equalTo(200))
+                .body("[199].fieldB1", equalTo("b199"));
+    }
+
+    @Test
+    public void testStreamAsNdjson() {
+        String body = given()
+                .queryParam("count", 3)
+                .accept("application/x-ndjson")
+                .when()
+                .get("/testStream")
+                .then()
+                .statusCode(200)
+                .contentType(startsWith("application/x-ndjson"))
+                .extract().asString();
+        Assertions.assertEquals(3, body.lines().count());
+        Assertions.assertTrue(body.lines().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+    }
+
+    @Test
+    public void testStreamAsEventStream() {
+        String body = given()
+                .queryParam("count", 2)
+                .accept("text/event-stream")
+                .when()
+                .get("/testStream")
+                .then()
+                .statusCode(200)
+                .contentType(startsWith("text/event-stream"))
+                .extract().asString();
+        Assertions.assertTrue(body.startsWith("data: {"));
+        Assertions.assertEquals(2, body.split("\n\n").length);
+    }
+
+    @Test
+    public void testPublisher() {
+        given()
+                .queryParam("count", 500)
+                .when()
+                .get("/testPublisher")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(500))
+                .body("[0].fieldB1", equalTo("b0"))
+                .body("[499].fieldB2", equalTo(499));
+    }
+
+    @Test
+    public void testPublisherErrorBeforeFirstElement() {
+        given()
+                .when()
+                .get("/testPublisherError")
+                .then()
+                .statusCode(500)
+                .body(equalTo("Error: publisher failure"));
+    }
+
+    @Test
+    public void testByteArrayBody() {
+        given()
+                .when()
+                .get("/testBytes")
+                .then()
+                .statusCode(200)
+                .contentType("application/octet-stream")
+                .header("Content-Length", "11")
+                .body(equalTo("binary body"));
+    }
+
+    @Test
+    public void testDirectByteBufferBody() {
+        given()
+                .when()
+                .get("/testByteBuffer")
+                .then()
+                .statusCode(202)
+                .body(equalTo("direct"));
+    }
+
+    @Test
+    public void testPathBodyRange() {
+        given()
+                .header("Range", "bytes=0-4")
+                .when()
+                .get("/testFile")
+                .then()
+                .statusCode(206)
+                .header("Content-Range", startsWith("bytes 0-4/"))
+                .body(equalTo("<?xml"));
+    }
+
+    @Test
+    public void testFileEntityNotCached() {
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .when()
+                    .get("/testCachedFile")
+                    .then()
+                    .statusCode(200)
+                    //FileResponseWriter's weak validator, not the cache's
+                    .header("ETag", startsWith("W/"))
+                    .body(startsWith("<?xml"));
+        }
+    }
+
+    @Test
+    public void testCachedResponse() {
+        Response first = given()
+                .queryParam("name", "cached")
+                .when()
+                .get("/testCached");
+        first.then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .header("ETag", notNullValue());
+        //served from the cache, the handler's counter is not incremented
+        given()
+                .queryParam("name", "cached")
+                .queryParam("ignored", "1")
+                .when()
+                .get("/testCached")
+                .then()
+                .statusCode(200)
+                .header("ETag", first.getHeader("ETag"))
+                .body(equalTo(first.asString()));
+        given()
+                .queryParam("name", "other")
+                .when()
+                .get("/testCached")
+                .then()
+                .statusCode(200)
+                .body("fieldB1", equalTo("other"))
+                .body("fieldB2", not(equalTo(first.path("fieldB2"))));
+    }
+
+    @Test
+    public void testCachedResponseNotModified() {
+        String etag = given().when().get("/testPathVar/77").getHeader("ETag");
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/testPathVar/77")
+                .then()
+                .statusCode(304);
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/testPathVar/78")
+                .then()
+                .statusCode(200)
+                .body(equalTo("testParam is 78"));
+    }
+
+    @Test
+    public void testNullResponseNotCached() {
+        given().when().get("/testCachedNull").then().statusCode(200).body(equalTo(""));
+        given().when().get("/testCachedNull").then().statusCode(200).body(equalTo("found"));
+        given().when().get("/testCachedNull").then().statusCode(200).body(equalTo("found"));
+    }
+
+    @Test
+    public void testCachedResponseVariesByAuthorities() {
+        String anonymous = given().when().get("/testCachedByAuthorities").asString();
+        Assertions.assertEquals(anonymous, given().when().get("/testCachedByAuthorities").asString());
+
+        String cookie = given()
+                .contentType("application/json")
+                .body("""
+                        {
+                            "username": "cachedUser",
+                            "password": "admin"
+                        }
+                        """)
+                .when()
+                .post("/login")
+                .getHeader("Set-Cookie");
+        String admin = given().header("Cookie", cookie).when().get("/testCachedByAuthorities").asString();
+        Assertions.assertNotEquals(anonymous, admin);
+        Assertions.assertEquals(admin, given().header("Cookie", cookie).when().get("/testCachedByAuthorities").asString());
+    }
+
     @Test
     public void testRequestParam() {
         given()